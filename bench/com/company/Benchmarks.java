@@ -0,0 +1,219 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the referee and of the search loop, on a fixed corpus of seeded games (Corpus).
+ * Each benchmark runs in its own forked JVMs, so the JIT profile of a benchmark (the call sites of the evaluators,
+ * of the referee...) does not depend on the benchmarks run before it. An operation takes the next state of the
+ * corpus, the states are played in turn.
+ *
+ * Not in src so createFile.py does not put it in the file of CodinGame. Built by the pom with the JMH annotation
+ * processor: java -jar target/benchmarks.jar -prof gc (or run main, which adds the gc profiler for the B/op).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class Benchmarks {
+
+    private static final int[] SEEDS = { 1, 2, 3, 4, 5, 6, 7, 8 };
+    private static final int ROUNDS_PLAYED = 10;
+    private static final int NB_ROUND_GENERATED = 5;
+
+    /**
+     * States of the corpus: each seed after ROUNDS_PLAYED random rounds, and a random solution for each state, with
+     * the evaluators prepared with the state (the evaluation of the round is made once before the searches)
+     */
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        final List<Referee> referees = new ArrayList<>();
+        final List<Referee.Snapshot> snapshots = new ArrayList<>();
+        final List<GameState> states = new ArrayList<>();
+        final List<int[]> solutions = new ArrayList<>();
+        Evaluator[] scoreEvaluators;
+        Evaluator[] featureEvaluators;
+
+        @Setup(Level.Trial)
+        public void build() {
+            for (int seed : SEEDS) {
+                Properties properties = new Properties();
+                properties.put("seed", String.valueOf(seed));
+                Referee ref = new Referee();
+                ref.initReferee(2, properties);
+                ref.setLeanSimulation(true);
+
+                Random random = new Random(seed);
+                byte[] actions = new byte[Referee.MAX_SHIPS];
+                int[] targets = new int[2 * Referee.MAX_SHIPS];
+                for (int round = 1; round <= ROUNDS_PLAYED; round++) {
+                    ref.prepare(round);
+                    for (int player = 0; player < 2; player++) {
+                        for (int k = 0; k < ref.getNumberOfShipsAlive(player); k++) {
+                            actions[k] = (byte) (Referee.ACTION_PORT + random.nextInt(4));
+                        }
+                        ref.handlePlayerActions(player, actions, targets);
+                    }
+                    if (ref.updateGame(round) == Referee.Outcome.GAME_OVER) {
+                        break;
+                    }
+                }
+                ref.prepare(ROUNDS_PLAYED + 1);
+
+                Referee.Snapshot snapshot = new Referee.Snapshot();
+                ref.saveState(snapshot);
+                GameState state = new GameState();
+                ref.saveState(state);
+                int[] solution = new int[NB_ROUND_GENERATED * ref.getNumberOfShipsAlive(1)];
+                for (int k = 0; k < solution.length; k++) {
+                    solution[k] = random.nextInt(7);
+                }
+
+                referees.add(ref);
+                snapshots.add(snapshot);
+                states.add(state);
+                solutions.add(solution);
+            }
+
+            int count = states.size();
+            scoreEvaluators = new Evaluator[count];
+            featureEvaluators = new Evaluator[count];
+            for (int c = 0; c < count; c++) {
+                scoreEvaluators[c] = new ScoreEvaluator();
+                scoreEvaluators[c].prepare(states.get(c), NB_ROUND_GENERATED);
+                featureEvaluators[c] = new FeatureEvaluator();
+                featureEvaluators[c].prepare(states.get(c), NB_ROUND_GENERATED);
+            }
+        }
+
+        int size() {
+            return states.size();
+        }
+    }
+
+    /**
+     * Scratch objects of the thread and index of the next state of the corpus
+     */
+    @State(Scope.Thread)
+    public static class Scratch {
+        final Referee referee = new Referee();
+        final GameState state = new GameState();
+        final byte[] actions = new byte[Referee.MAX_SHIPS];
+        final int[] targets = new int[2 * Referee.MAX_SHIPS];
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            referee.setLeanSimulation(true);
+            Arrays.fill(actions, Referee.ACTION_FASTER);
+        }
+
+        /**
+         * @return the index of the next state of the corpus
+         */
+        int next(Corpus corpus) {
+            index = index + 1 == corpus.size() ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(Benchmarks.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @Benchmark
+    public int refereeCopyConstructor(Corpus corpus, Scratch scratch) {
+        return new Referee(corpus.referees.get(scratch.next(corpus))).getNumberOfShipsAlive(1);
+    }
+
+    @Benchmark
+    public boolean refereeHandlePlayerOutput(Corpus corpus, Scratch scratch) {
+        Referee ref = corpus.referees.get(scratch.next(corpus));
+        String[] outputs = { "MOVE 11 10", "FIRE 5 5", "PORT" };
+        return ref.handlePlayerOutput(0, 1, 1, Arrays.copyOf(outputs, ref.getNumberOfShipsAlive(1)));
+    }
+
+    @Benchmark
+    public int refereeRestoreState(Corpus corpus, Scratch scratch) {
+        scratch.referee.restoreState(corpus.snapshots.get(scratch.next(corpus)));
+        return scratch.referee.getNumberOfShipsAlive(1);
+    }
+
+    @Benchmark
+    public Referee.Outcome refereeUpdateGame(Corpus corpus, Scratch scratch) {
+        Referee ref = scratch.referee;
+        ref.restoreState(corpus.snapshots.get(scratch.next(corpus)));
+        ref.prepare(1);
+        ref.handlePlayerActions(1, scratch.actions, scratch.targets);
+        return ref.updateGame(1);
+    }
+
+    @Benchmark
+    public boolean gameStateUpdate(Corpus corpus, Scratch scratch) {
+        GameState state = scratch.state;
+        state.copyFrom(corpus.states.get(scratch.next(corpus)));
+        state.prepare();
+        state.handlePlayerActions(1, scratch.actions, scratch.targets);
+        return state.update();
+    }
+
+    @Benchmark
+    public int refereeEvaluateScore(Corpus corpus, Scratch scratch) {
+        int c = scratch.next(corpus);
+        return corpus.referees.get(c).evaluateScore(corpus.referees.get((c + 1) % corpus.size()));
+    }
+
+    @Benchmark
+    public int scoreEvaluatorEvaluate(Corpus corpus, Scratch scratch) {
+        int c = scratch.next(corpus);
+        return corpus.scoreEvaluators[c].evaluate(corpus.states.get(c), corpus.states.get((c + 1) % corpus.size()));
+    }
+
+    @Benchmark
+    public int featureEvaluatorEvaluate(Corpus corpus, Scratch scratch) {
+        int c = scratch.next(corpus);
+        return corpus.featureEvaluators[c].evaluate(corpus.states.get(c), corpus.states.get((c + 1) % corpus.size()));
+    }
+
+    @Benchmark
+    public int evaluateSolutionOnReferee(Corpus corpus, Scratch scratch) {
+        int c = scratch.next(corpus);
+        Referee ref = corpus.referees.get(c);
+        return Player.evaluateSolution(0, NB_ROUND_GENERATED, ref.getNumberOfShipsAlive(1), corpus.solutions.get(c), ref,
+                corpus.snapshots.get(c), scratch.referee);
+    }
+
+    @Benchmark
+    public int evaluateSolutionOnGameState(Corpus corpus, Scratch scratch) {
+        int c = scratch.next(corpus);
+        // After the first operations the scores of the corpus are in the transposition table: simulation and lookup
+        return Player.evaluateSolution(0, NB_ROUND_GENERATED, corpus.referees.get(c).getNumberOfShipsAlive(1), corpus.solutions.get(c),
+                0, corpus.states.get(c), scratch.state, scratch.actions, scratch.targets, OpponentModel.WAIT_MODEL,
+                corpus.scoreEvaluators[c]);
+    }
+}
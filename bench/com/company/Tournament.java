@@ -0,0 +1,264 @@
+package com.company;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless self-play games between two bots, on seeded games of the referee (initReferee), without the CodinGame
+ * server. Each seed is played twice with the sides swapped, the games are played on a pool of threads and the win
+ * rate and the average score (Referee.getScore) of each bot are printed at the end.
+ * A bot only sees the input of its player (getInputForPlayer) and rebuilds its model referee from it, like Player.
+ *
+ * Not in src so createFile.py does not put it in the file of CodinGame. Built with src by the pom (mvn package):
+ * java -cp target/benchmarks.jar com.company.Tournament [games] [threads] [millisByRound] [firstSeed] [botA] [botB]
+ * A bot is "nearest" (NearestBarrelBot) or the name of an OpponentModel.Policy (GeneticAlgorithmBot with this opponent model),
+ * followed by ":features" for the FeatureEvaluator instead of the ScoreEvaluator (WAIT:features).
+ * With more threads than cores the time of a round is shared: the searches do less evaluations than in a real game.
+ * The bots of a game are seeded from (random.seed, game, side), with the property random.seed (else the clock): with
+ * the same random.seed and a fixed nb of evaluations a game is played the same whatever the threads and the order of
+ * the games on the pool.
+ */
+class Tournament {
+
+    private static final int NB_ROUND_GENERATED = 5;
+
+    /**
+     * A strategy, one instance for each game (it can keep its state between the rounds)
+     */
+    interface Bot {
+        /**
+         * @param input : lines of getInputForPlayer for the player of the bot
+         * @param round : round of the game, from 1
+         * @return one output for each ship alive of the bot
+         */
+        String[] play(String[] input, int round);
+    }
+
+    /**
+     * Creates the bot of a side of a game
+     */
+    interface BotFactory {
+        /**
+         * @param seed : seed of the random numbers of the bot
+         */
+        Bot create(long seed);
+    }
+
+    /**
+     * Bot reading its input in a model referee like Player.main (its ships are the ships of the player 1)
+     */
+    abstract static class ModelBot implements Bot {
+        protected final Referee ref = new Referee();
+        protected final List<Referee.Player> players = new ArrayList<>();
+        protected final List<Referee.Entity> rumBarrels = new ArrayList<>();
+        protected final TurnBudget turnBudget;
+
+        ModelBot(TurnBudget turnBudget) {
+            this.turnBudget = turnBudget;
+            ref.initReferee2();
+            players.add(new Referee.Player(0));
+            players.add(new Referee.Player(1));
+        }
+
+        @Override
+        public String[] play(String[] input, int round) {
+            InputReader in = new InputReader(new ByteArrayInputStream(String.join("\n", input).getBytes(StandardCharsets.US_ASCII)));
+            rumBarrels.clear();
+            int myShipCount = Player.readRound(in, ref, players, rumBarrels, turnBudget, round);
+            return play(myShipCount, round);
+        }
+
+        protected abstract String[] play(int myShipCount, int round);
+    }
+
+    /**
+     * The simple strategy of Player (nearest barrel, fire 1 round on 4)
+     */
+    static class NearestBarrelBot extends ModelBot {
+        NearestBarrelBot() {
+            super(new TurnBudget(0, 0));
+        }
+
+        @Override
+        protected String[] play(int myShipCount, int round) {
+            return Player.getNearestBarrelOutputs(players, rumBarrels, myShipCount, round);
+        }
+    }
+
+    /**
+     * The genetic algorithm of Player with a time of millisByRound for each round
+     */
+    static class GeneticAlgorithmBot extends ModelBot {
+        private final GeneticAlgorithm geneticAlgorithm;
+
+        GeneticAlgorithmBot(long millisByRound, OpponentModel.Policy policy, Evaluator evaluator, long seed) {
+            super(new TurnBudget(millisByRound, millisByRound));
+            FastRandom random = new FastRandom(seed);
+            geneticAlgorithm = new GeneticAlgorithm(20, 3, new FastRandom(random.nextLong()));
+            geneticAlgorithm.setOpponentModel(new OpponentModel(policy, 100, new FastRandom(random.nextLong())));
+            geneticAlgorithm.setEvaluator(evaluator);
+        }
+
+        @Override
+        protected String[] play(int myShipCount, int round) {
+            return geneticAlgorithm.nextOutputs(turnBudget, NB_ROUND_GENERATED, myShipCount, ref, round);
+        }
+    }
+
+    /**
+     * Result of a game, from the side of the bot A
+     */
+    static class GameResult {
+        final int seed;
+        final int scoreA;
+        final int scoreB;
+        final int rounds;
+
+        GameResult(int seed, int scoreA, int scoreB, int rounds) {
+            this.seed = seed;
+            this.scoreA = scoreA;
+            this.scoreB = scoreB;
+            this.rounds = rounds;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long millisByRound = args.length > 2 ? Long.parseLong(args[2]) : 5;
+        int firstSeed = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        String nameA = args.length > 4 ? args[4] : OpponentModel.Policy.WAIT.name();
+        String nameB = args.length > 5 ? args[5] : "nearest";
+
+        // Read only tables of FeatureEvaluator and of the MOVE actions, computed before the games (not by the threads)
+        SailingTable.build();
+        NavigationTable.buildAll();
+
+        long globalSeed = Long.getLong("random.seed", FastRandom.mix(System.nanoTime()));
+
+        BotFactory botA = bot(nameA, millisByRound);
+        BotFactory botB = bot(nameB, millisByRound);
+
+        long start = System.nanoTime();
+        List<GameResult> results = play(botA, botB, games, threads, firstSeed, globalSeed);
+        long seconds = (System.nanoTime() - start) / 1_000_000_000L;
+
+        int wins = 0;
+        int draws = 0;
+        long scoreA = 0;
+        long scoreB = 0;
+        long rounds = 0;
+        for (GameResult result : results) {
+            if (result.scoreA > result.scoreB) {
+                wins++;
+            } else if (result.scoreA == result.scoreB) {
+                draws++;
+            }
+            scoreA += result.scoreA;
+            scoreB += result.scoreB;
+            rounds += result.rounds;
+        }
+
+        int count = results.size();
+        System.out.println("Games: " + count + " threads: " + threads + " ms by round: " + millisByRound + " random.seed: "
+                + globalSeed + " time: " + seconds + " s");
+        System.out.println(String.format("A (%s) against B (%s) wins: %d draws: %d losses: %d win rate: %.1f%%", nameA, nameB,
+                wins, draws, count - wins - draws, 100.0 * (wins + 0.5 * draws) / count));
+        System.out.println(String.format("Average score A: %.1f B: %.1f rounds: %.1f", (double) scoreA / count,
+                (double) scoreB / count, (double) rounds / count));
+    }
+
+    private static BotFactory bot(String name, long millisByRound) {
+        if (name.equals("nearest")) {
+            return seed -> new NearestBarrelBot();
+        }
+        String[] parts = name.split(":");
+        OpponentModel.Policy policy = OpponentModel.Policy.valueOf(parts[0]);
+        boolean features = parts.length > 1 && parts[1].equals("features");
+        return seed -> new GeneticAlgorithmBot(millisByRound, policy, features ? new FeatureEvaluator() : new ScoreEvaluator(),
+                seed);
+    }
+
+    /**
+     * Play the games on a pool of threads, the game 2k has the seed firstSeed + k with A as the player 0 and the game
+     * 2k + 1 the same seed with A as the player 1
+     * @param globalSeed : seed of the seeds of the bots (botSeed)
+     * @return the results in the order of the games
+     */
+    public static List<GameResult> play(BotFactory botA, BotFactory botB, int games, int threads, int firstSeed,
+            long globalSeed) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<GameResult>> futures = new ArrayList<>();
+            for (int game = 0; game < games; game++) {
+                int seed = firstSeed + game / 2;
+                boolean aIsPlayer0 = game % 2 == 0;
+                long seedA = botSeed(globalSeed, game, 0);
+                long seedB = botSeed(globalSeed, game, 1);
+                futures.add(executor.submit(() -> playGame(seed, botA.create(seedA), botB.create(seedB), aIsPlayer0)));
+            }
+
+            List<GameResult> results = new ArrayList<>();
+            for (Future<GameResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Game failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param side : 0 for the bot A, 1 for the bot B
+     * @return the seed of the bot of the side in the game, independent of the other games
+     */
+    static long botSeed(long globalSeed, int game, int side) {
+        return FastRandom.mix(globalSeed ^ FastRandom.mix(2L * game + side + 1));
+    }
+
+    /**
+     * Play a whole game of the seed between the two bots
+     * @param aIsPlayer0 : true if botA is the player 0
+     */
+    public static GameResult playGame(int seed, Bot botA, Bot botB, boolean aIsPlayer0) {
+        Properties properties = new Properties();
+        properties.put("seed", String.valueOf(seed));
+        Referee ref = new Referee();
+        ref.initReferee(2, properties);
+        // Nothing of the game is displayed
+        ref.setLeanSimulation(true);
+
+        Bot[] bots = aIsPlayer0 ? new Bot[] { botA, botB } : new Bot[] { botB, botA };
+        String[][] outputs = new String[2][];
+
+        int round = 1;
+        int maxRound = ref.getMaxRoundCount(2);
+        for (; round <= maxRound; round++) {
+            ref.prepare(round);
+            for (int player = 0; player < 2; player++) {
+                outputs[player] = bots[player].play(ref.getInputForPlayer(round, player), round);
+            }
+            // An invalid output kills the ships of the player (handlePlayerOutput)
+            for (int player = 0; player < 2; player++) {
+                ref.handlePlayerOutput(0, round, player, outputs[player]);
+            }
+            if (ref.updateGame(round) == Referee.Outcome.GAME_OVER) {
+                break;
+            }
+        }
+
+        int playerA = aIsPlayer0 ? 0 : 1;
+        return new GameResult(seed, ref.getScore(playerA), ref.getScore(1 - playerA), Math.min(round, maxRound));
+    }
+}
@@ -0,0 +1,142 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Cells hit during the next turns by the cannonballs already fired and by the mines, and cells in the fire zone of
+ * the ennemy, built once by round from the state of the round. The turn 1 is the first round simulated (the next
+ * updateGame).
+ * The cannonballs fired and the mines exploded during a simulation are not in the map.
+ */
+class DangerMap {
+
+    // A cannonball fired by the ennemy at the next round lands in THREAT_TURNS turns at most in its fire zone
+    private static final int THREAT_TURNS = 2;
+
+    // Bit t of the mask: something explodes on (or next to) the cell during the turn t
+    private final int[] cannonballTurns = new int[GameState.EXT_CELL_COUNT];
+    private final int[] mineBlastTurns = new int[GameState.EXT_CELL_COUNT];
+    private final boolean[] mines = new boolean[GameState.EXT_CELL_COUNT];
+    // Nb of ships of the ennemy with the cell in their fire zone
+    private final int[] threat = new int[GameState.EXT_CELL_COUNT];
+
+    /**
+     * Build the map from the cannonballs, the mines and the ships of the ennemy of the state
+     * @param playerId : player threatened by the ships of the other player
+     */
+    public void build(GameState state, int playerId) {
+        Arrays.fill(cannonballTurns, 0);
+        Arrays.fill(mineBlastTurns, 0);
+        Arrays.fill(mines, false);
+        Arrays.fill(threat, 0);
+
+        for (int i = 0; i < state.getMineCount(); i++) {
+            mines[state.getMineCell(i)] = true;
+        }
+
+        for (int i = 0; i < state.getCannonballCount(); i++) {
+            int turn = state.getCannonballTurns(i);
+            if (turn <= 0 || turn >= Integer.SIZE) {
+                continue;
+            }
+            int cell = state.getCannonballCell(i);
+            cannonballTurns[cell] |= 1 << turn;
+
+            // A cannonball on a mine explodes it: damages around the mine
+            if (mines[cell]) {
+                mineBlastTurns[cell] |= 1 << turn;
+                for (int orientation = 0; orientation < 6; orientation++) {
+                    int neighbor = GameState.neighbor(cell, orientation);
+                    if (neighbor != GameState.NO_CELL) {
+                        mineBlastTurns[neighbor] |= 1 << turn;
+                    }
+                }
+            }
+        }
+
+        for (int ship = 0; ship < state.getShipCount(); ship++) {
+            if (!state.isShipAlive(ship) || state.getShipOwner(ship) == playerId) {
+                continue;
+            }
+            int bow = state.bow(ship);
+            for (int cell = 0; cell < GameState.EXT_CELL_COUNT; cell++) {
+                // Travel time of a cannonball in Referee: 1 + round(distance / 3)
+                if (1 + Math.round(GameState.distance(bow, cell) / 3.0) <= THREAT_TURNS) {
+                    threat[cell]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if a cannonball explodes on the cell during the turn
+     */
+    public boolean isHit(int cell, int turn) {
+        return (cannonballTurns[cell] & bit(turn)) != 0;
+    }
+
+    /**
+     * @return true if a mine is on the cell during the turn (not exploded by a cannonball during a previous turn)
+     */
+    public boolean isMine(int cell, int turn) {
+        return mines[cell] && (cannonballTurns[cell] & (bit(turn) - 1)) == 0;
+    }
+
+    /**
+     * @return the nb of ships of the ennemy that can hit the cell in THREAT_TURNS turns
+     */
+    public int getThreat(int cell) {
+        return threat[cell];
+    }
+
+    /**
+     * Damage taken by a ship on the cells during the turn, like explodeShips and Mine.explode of Referee: cannonball on
+     * the center or on the bow and the stern, mine under the ship or mine exploded next to it
+     * @param cell : center of the ship
+     */
+    public int damage(int cell, int orientation, int turn) {
+        int bow = GameState.neighbor(cell, orientation);
+        int stern = GameState.neighbor(cell, (orientation + 3) % 6);
+
+        int damage = 0;
+        if (isHit(cell, turn)) {
+            damage += Referee.HIGH_DAMAGE;
+        }
+        if (isHit(bow, turn)) {
+            damage += Referee.LOW_DAMAGE;
+        }
+        if (isHit(stern, turn)) {
+            damage += Referee.LOW_DAMAGE;
+        }
+
+        int mineDamage = 0;
+        if (isMine(cell, turn)) {
+            mineDamage += Referee.MINE_DAMAGE;
+        }
+        if (isMine(bow, turn)) {
+            mineDamage += Referee.MINE_DAMAGE;
+        }
+        if (isMine(stern, turn)) {
+            mineDamage += Referee.MINE_DAMAGE;
+        }
+        if (mineDamage == 0 && ((mineBlastTurns[cell] | mineBlastTurns[bow] | mineBlastTurns[stern]) & bit(turn)) != 0) {
+            mineDamage = Referee.NEAR_MINE_DAMAGE;
+        }
+
+        return damage + mineDamage;
+    }
+
+    /**
+     * @return true if nothing explodes on the cell during the turn and there is no mine
+     */
+    public boolean isSafe(int cell, int turn) {
+        return !isMine(cell, turn) && ((cannonballTurns[cell] | mineBlastTurns[cell]) & bit(turn)) == 0;
+    }
+
+    /**
+     * @return the bit of the turn in the masks, 0 for the turns after the last one of the masks
+     */
+    private static int bit(int turn) {
+        return turn > 0 && turn < Integer.SIZE ? 1 << turn : 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.company;
+
+/**
+ * Score of the states at the end of the simulations of a search.
+ * prepare is called once by round with the state of the round, before the simulations: the features that only
+ * depend on the round (distances, zones, ships of the round) are computed there, so evaluate is a short loop on
+ * the ships of the simulated state. After prepare the evaluator is only read: the threads of a search can share it.
+ */
+interface Evaluator {
+
+    /**
+     * Compute the features of the round
+     * @param rootState : state of the round, the simulated states are copies of it (same ships in the same order)
+     * @param nbOfRounds : nb of rounds of the simulations
+     */
+    void prepare(GameState rootState, int nbOfRounds);
+
+    /**
+     * @param rootState : state given to prepare
+     * @param state : state after the simulation
+     * @return the score of state (the higher the better for the player of the evaluator, the player 1 in the searches)
+     */
+    int evaluate(GameState rootState, GameState state);
+
+    /**
+     * @return the id of the evaluator, different for each instance (the scores of two evaluators are not mixed in the
+     * transposition table)
+     */
+    int getId();
+}
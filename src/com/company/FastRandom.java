@@ -0,0 +1,90 @@
+package com.company;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Random numbers of the searches (SplitMix64): one long of state, one add and a mix by number, no synchronization.
+ * An instance must only be used by one thread: each search has its own (create) and the static methods of Player
+ * use the instance of their thread (current).
+ * The instances are seeded one after the other from a global seed: with the same global seed (property random.seed,
+ * or setGlobalSeed before the searches are created) the same program gives the same random numbers, so a search with
+ * a fixed number of evaluations gives the same result at each run, to compare two versions.
+ */
+class FastRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Seed of the next instance created: the property random.seed (java -Drandom.seed=1 ...), else from the clock
+    private static final AtomicLong nextSeed = new AtomicLong(Long.getLong("random.seed", mix(System.nanoTime())));
+
+    private static final ThreadLocal<FastRandom> CURRENT = ThreadLocal.withInitial(FastRandom::create);
+
+    private long state;
+
+    public FastRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Seed of all the instances created after this call (and of the threads without instance yet)
+     */
+    public static void setGlobalSeed(long seed) {
+        nextSeed.set(seed);
+    }
+
+    /**
+     * @return a new instance, seeded with the next seed of the global sequence
+     */
+    public static FastRandom create() {
+        return new FastRandom(mix(nextSeed.getAndAdd(GOLDEN_GAMMA)));
+    }
+
+    /**
+     * @return the instance of the current thread
+     */
+    public static FastRandom current() {
+        return CURRENT.get();
+    }
+
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Same distribution as Random.nextInt(bound) (Lemire: a multiplication, a division only for the rare rejections)
+     * @param bound : > 0
+     * @return a number between 0 and bound - 1
+     */
+    public int nextInt(int bound) {
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & 0xFFFFFFFFL) < bound) {
+            // Reject the low values that would make the small results more frequent
+            long threshold = (0x100000000L - bound) % bound;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads the bits of z over the 64 bits
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
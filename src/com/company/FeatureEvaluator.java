@@ -0,0 +1,79 @@
+package com.company;
+
+/**
+ * ScoreEvaluator with the features of the round computed by prepare:
+ * - the nb of turns to sail to the nearest barrel of the round from each state of a ship (SailingTable, built by the
+ * first prepare), a ship far from the barrels loses points
+ * - the DangerMap of the round: a ship ending in the fire zone of the ennemy loses points, and so does a ship hit at
+ * the turn after the simulation (cannonballs already fired and mines on its way)
+ */
+class FeatureEvaluator extends ScoreEvaluator {
+
+    private static final int BARREL_TURNS_WEIGHT = 5;
+    private static final int MAX_BARREL_TURNS = 30;
+    private static final int THREAT_PENALTY = 30;
+    // Same weight as the rum of the ship in ScoreEvaluator
+    private static final int DAMAGE_WEIGHT = 10;
+
+    private final int[] barrelTurns = new int[SailingTable.STATE_COUNT];
+    private int[] barrelCells = new int[Referee.MAX_RUM_BARRELS];
+    private final DangerMap dangerMap = new DangerMap();
+    private int nextTurn;
+
+    @Override
+    public void prepare(GameState rootState, int nbOfRounds) {
+        super.prepare(rootState, nbOfRounds);
+        SailingTable.build();
+
+        int barrelCount = rootState.getBarrelCount();
+        if (barrelCells.length < barrelCount) {
+            barrelCells = new int[barrelCount];
+        }
+        for (int barrel = 0; barrel < barrelCount; barrel++) {
+            barrelCells[barrel] = GameState.mapCell(rootState.getBarrelCell(barrel));
+        }
+        for (int sailingState = 0; sailingState < SailingTable.STATE_COUNT; sailingState++) {
+            int turns = barrelCount == 0 ? 0 : MAX_BARREL_TURNS;
+            for (int barrel = 0; barrel < barrelCount; barrel++) {
+                turns = Math.min(turns, SailingTable.turnsTo(sailingState, barrelCells[barrel]));
+            }
+            barrelTurns[sailingState] = turns;
+        }
+
+        dangerMap.build(rootState, playerId);
+        nextTurn = nbOfRounds + 1;
+    }
+
+    @Override
+    public int evaluate(GameState rootState, GameState state) {
+        int score = super.evaluate(rootState, state);
+
+        for (int k = 0; k < myShipCount; k++) {
+            int ship = myShips[k];
+            if (!state.isShipAlive(ship)) {
+                continue;
+            }
+            int cell = state.getShipCell(ship);
+            int orientation = state.getShipOrientation(ship);
+            score -= barrelTurns[state.sailingState(ship)] * BARREL_TURNS_WEIGHT;
+            score -= dangerMap.getThreat(cell) * THREAT_PENALTY;
+            score -= dangerMap.damage(nextCell(cell, orientation, state.getShipSpeed(ship)), orientation, nextTurn) * DAMAGE_WEIGHT;
+        }
+
+        return score;
+    }
+
+    /**
+     * @return the center of the ship after a move at its speed, without the other ships (moveShips)
+     */
+    private static int nextCell(int cell, int orientation, int speed) {
+        for (int step = 0; step < speed; step++) {
+            int next = GameState.neighbor(cell, orientation);
+            if (!GameState.isInsideMap(next)) {
+                break;
+            }
+            cell = next;
+        }
+        return cell;
+    }
+}
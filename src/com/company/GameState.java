@@ -0,0 +1,1066 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Compact state of the game for the simulations, stored in primitive arrays (structure of arrays),
+ * with a port of Referee.updateGame working on it. The rules are the same as the Referee (same order of the
+ * ships, of the entities and of the damages), without the view and without any allocation during a simulation.
+ *
+ * Positions are indexes on the map extended by a margin of 2 cells, so the bow, the stern and the mine drop of a
+ * ship outside the map still have an index.
+ */
+class GameState {
+
+    private static final int MARGIN = 2;
+    private static final int EXT_WIDTH = Referee.MAP_WIDTH + 2 * MARGIN;
+    private static final int EXT_HEIGHT = Referee.MAP_HEIGHT + 2 * MARGIN;
+    public static final int EXT_CELL_COUNT = EXT_WIDTH * EXT_HEIGHT;
+    public static final int NO_CELL = -1;
+
+    private static final int[] EXT_X = new int[EXT_CELL_COUNT];
+    private static final int[] EXT_Y = new int[EXT_CELL_COUNT];
+    private static final boolean[] EXT_INSIDE = new boolean[EXT_CELL_COUNT];
+    private static final int[] EXT_NEIGHBORS = new int[EXT_CELL_COUNT * 6];
+
+    // Zobrist keys of the entities on each cell (fixed seed, so the hashes are the same at each run)
+    private static final long[] MINE_KEYS = new long[EXT_CELL_COUNT];
+    private static final long[] BARREL_KEYS = new long[EXT_CELL_COUNT];
+    private static final long[] CANNONBALL_KEYS = new long[EXT_CELL_COUNT];
+    private static final long[] SHIP_KEYS = new long[2 * Referee.MAX_SHIPS];
+
+    private final static int[][] DIRECTIONS_EVEN = new int[][] { { 1, 0 }, { 0, -1 }, { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, 1 } };
+    private final static int[][] DIRECTIONS_ODD = new int[][] { { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, 0 }, { 0, 1 }, { 1, 1 } };
+
+    static {
+        for (int cell = 0; cell < EXT_CELL_COUNT; cell++) {
+            int x = cell % EXT_WIDTH - MARGIN;
+            int y = cell / EXT_WIDTH - MARGIN;
+            EXT_X[cell] = x;
+            EXT_Y[cell] = y;
+            EXT_INSIDE[cell] = x >= 0 && x < Referee.MAP_WIDTH && y >= 0 && y < Referee.MAP_HEIGHT;
+            for (int orientation = 0; orientation < 6; orientation++) {
+                EXT_NEIGHBORS[cell * 6 + orientation] = cellOf(neighborX(x, y, orientation), neighborY(x, y, orientation));
+            }
+        }
+
+        FastRandom keys = new FastRandom(0x5DEECE66DL);
+        for (int cell = 0; cell < EXT_CELL_COUNT; cell++) {
+            MINE_KEYS[cell] = keys.nextLong();
+            BARREL_KEYS[cell] = keys.nextLong();
+            CANNONBALL_KEYS[cell] = keys.nextLong();
+        }
+        for (int i = 0; i < SHIP_KEYS.length; i++) {
+            SHIP_KEYS[i] = keys.nextLong();
+        }
+    }
+
+    /**
+     * @return the index of (x, y) or NO_CELL if too far outside the map
+     */
+    public static int cellOf(int x, int y) {
+        if (x < -MARGIN || x >= Referee.MAP_WIDTH + MARGIN || y < -MARGIN || y >= Referee.MAP_HEIGHT + MARGIN) {
+            return NO_CELL;
+        }
+        return (x + MARGIN) + (y + MARGIN) * EXT_WIDTH;
+    }
+
+    public static int getX(int cell) {
+        return EXT_X[cell];
+    }
+
+    public static int getY(int cell) {
+        return EXT_Y[cell];
+    }
+
+    public static boolean isInsideMap(int cell) {
+        return cell != NO_CELL && EXT_INSIDE[cell];
+    }
+
+    public static int neighbor(int cell, int orientation) {
+        return EXT_NEIGHBORS[cell * 6 + orientation];
+    }
+
+    private static int neighborX(int x, int y, int orientation) {
+        return x + (y % 2 == 1 ? DIRECTIONS_ODD : DIRECTIONS_EVEN)[orientation][0];
+    }
+
+    private static int neighborY(int x, int y, int orientation) {
+        return y + (y % 2 == 1 ? DIRECTIONS_ODD : DIRECTIONS_EVEN)[orientation][1];
+    }
+
+    // Same as CubeCoordinate.distanceTo
+    private static int distance(int x1, int y1, int x2, int y2) {
+        int xp1 = x1 - (y1 - (y1 & 1)) / 2;
+        int xp2 = x2 - (y2 - (y2 & 1)) / 2;
+        int yp1 = -(xp1 + y1);
+        int yp2 = -(xp2 + y2);
+        return (Math.abs(xp1 - xp2) + Math.abs(yp1 - yp2) + Math.abs(y1 - y2)) / 2;
+    }
+
+    public static int distance(int cell, int otherCell) {
+        if (EXT_INSIDE[cell] && EXT_INSIDE[otherCell]) {
+            return Referee.Coord.cellDistance(Referee.Coord.cellIndex(EXT_X[cell], EXT_Y[cell]),
+                    Referee.Coord.cellIndex(EXT_X[otherCell], EXT_Y[otherCell]));
+        }
+        return distance(EXT_X[cell], EXT_Y[cell], EXT_X[otherCell], EXT_Y[otherCell]);
+    }
+
+    private static final int MAX_SHIP_COUNT = 2 * Referee.MAX_SHIPS;
+
+    // Ships of player 0 then of player 1, dead ships are kept like in Referee.Player.ships
+    private int shipCount;
+    private final int[] shipId = new int[MAX_SHIP_COUNT];
+    private final int[] shipOwner = new int[MAX_SHIP_COUNT];
+    private final int[] shipCell = new int[MAX_SHIP_COUNT];
+    private final int[] shipOrientation = new int[MAX_SHIP_COUNT];
+    // Bow and stern of the ships, updated with the cell and the orientation
+    private final int[] shipBow = new int[MAX_SHIP_COUNT];
+    private final int[] shipStern = new int[MAX_SHIP_COUNT];
+    private final int[] shipSpeed = new int[MAX_SHIP_COUNT];
+    private final int[] shipHealth = new int[MAX_SHIP_COUNT];
+    private final int[] shipMineCooldown = new int[MAX_SHIP_COUNT];
+    private final int[] shipCannonCooldown = new int[MAX_SHIP_COUNT];
+    private final int[] shipHealthWin = new int[MAX_SHIP_COUNT];
+    // false once the ship is removed from the game (Referee.ships / shipsAlive)
+    private final boolean[] shipAlive = new boolean[MAX_SHIP_COUNT];
+    private final byte[] shipAction = new byte[MAX_SHIP_COUNT];
+    private final int[] shipTargetX = new int[MAX_SHIP_COUNT];
+    private final int[] shipTargetY = new int[MAX_SHIP_COUNT];
+    // Zobrist key of each ship in hash (shipKey), only recomputed for the ships alive in a round
+    private final long[] shipKeys = new long[MAX_SHIP_COUNT];
+
+    // Work arrays of moveShips and rotateShips (not copied)
+    private final int[] newOrientation = new int[MAX_SHIP_COUNT];
+    private final int[] newCell = new int[MAX_SHIP_COUNT];
+    private final int[] newBow = new int[MAX_SHIP_COUNT];
+    private final int[] newStern = new int[MAX_SHIP_COUNT];
+    private final boolean[] collision = new boolean[MAX_SHIP_COUNT];
+    // Bit i set on the new bow, center and stern of the ship i (all 0 outside of moveShips and rotateShips)
+    private final int[] shipsOnCell = new int[EXT_CELL_COUNT];
+    // true on the cell of the mine exploding and on its neighbors (all false outside of explodeMine)
+    private final boolean[] nearMine = new boolean[EXT_CELL_COUNT];
+    private final int[] lostShips = new int[4 * MAX_SHIP_COUNT];
+    private int lostShipCount;
+
+    private int mineCount;
+    private int[] mineCell = new int[32];
+    private final byte[] minesAt = new byte[EXT_CELL_COUNT];
+
+    private int barrelCount;
+    private int[] barrelCell = new int[Referee.MAX_RUM_BARRELS + 2 * MAX_SHIP_COUNT];
+    private int[] barrelHealth = new int[Referee.MAX_RUM_BARRELS + 2 * MAX_SHIP_COUNT];
+    private final byte[] barrelsAt = new byte[EXT_CELL_COUNT];
+
+    private int cannonballCount;
+    private int[] cannonballCell = new int[16];
+    private int[] cannonballTurns = new int[16];
+
+    private int explosionCount;
+    private int[] explosionCell = new int[16];
+
+    // Zobrist hash of the ships, mines, barrels and cannonballs, updated with them
+    private long hash;
+
+    // ---
+    // Initialization
+    // ---
+
+    public void clear() {
+        shipCount = 0;
+        for (int i = 0; i < mineCount; i++) {
+            minesAt[mineCell[i]] = 0;
+        }
+        mineCount = 0;
+        for (int i = 0; i < barrelCount; i++) {
+            barrelsAt[barrelCell[i]] = 0;
+        }
+        barrelCount = 0;
+        cannonballCount = 0;
+        explosionCount = 0;
+        hash = 0;
+    }
+
+    /**
+     * Add a ship, the ships of player 0 must be added before the ships of player 1
+     * @param alive : false if the ship is not in the game anymore
+     */
+    public void addShip(int id, int owner, int x, int y, int orientation, int speed, int health, int mineCooldown, int cannonCooldown,
+                        boolean alive) {
+        int i = shipCount++;
+        shipId[i] = id;
+        shipOwner[i] = owner;
+        shipCell[i] = cellOf(x, y);
+        shipOrientation[i] = orientation;
+        shipBow[i] = neighbor(shipCell[i], orientation);
+        shipStern[i] = neighbor(shipCell[i], (orientation + 3) % 6);
+        shipSpeed[i] = speed;
+        shipHealth[i] = health;
+        shipMineCooldown[i] = mineCooldown;
+        shipCannonCooldown[i] = cannonCooldown;
+        shipHealthWin[i] = 0;
+        shipAlive[i] = alive;
+        shipAction[i] = Referee.ACTION_WAIT;
+        shipKeys[i] = shipKey(i);
+        hash ^= shipKeys[i];
+    }
+
+    public void addMine(int x, int y) {
+        addMine(cellOf(x, y));
+    }
+
+    private void addMine(int cell) {
+        if (mineCount == mineCell.length) {
+            mineCell = Arrays.copyOf(mineCell, 2 * mineCount);
+        }
+        mineCell[mineCount++] = cell;
+        minesAt[cell]++;
+        hash ^= MINE_KEYS[cell];
+    }
+
+    public void addBarrel(int x, int y, int health) {
+        addBarrel(cellOf(x, y), health);
+    }
+
+    private void addBarrel(int cell, int health) {
+        if (barrelCount == barrelCell.length) {
+            barrelCell = Arrays.copyOf(barrelCell, 2 * barrelCount);
+            barrelHealth = Arrays.copyOf(barrelHealth, 2 * barrelCount);
+        }
+        barrelCell[barrelCount] = cell;
+        barrelHealth[barrelCount] = health;
+        barrelCount++;
+        barrelsAt[cell]++;
+        hash ^= barrelKey(cell, health);
+    }
+
+    public void addCannonball(int x, int y, int remainingTurns) {
+        addCannonball(cellOf(x, y), remainingTurns);
+    }
+
+    private void addCannonball(int cell, int remainingTurns) {
+        if (cannonballCount == cannonballCell.length) {
+            cannonballCell = Arrays.copyOf(cannonballCell, 2 * cannonballCount);
+            cannonballTurns = Arrays.copyOf(cannonballTurns, 2 * cannonballCount);
+        }
+        cannonballCell[cannonballCount] = cell;
+        cannonballTurns[cannonballCount] = remainingTurns;
+        cannonballCount++;
+        hash ^= cannonballKey(cell, remainingTurns);
+    }
+
+    /**
+     * Reset this state to an other one (a few array copies)
+     */
+    public void copyFrom(GameState other) {
+        shipCount = other.shipCount;
+        System.arraycopy(other.shipId, 0, shipId, 0, shipCount);
+        System.arraycopy(other.shipOwner, 0, shipOwner, 0, shipCount);
+        System.arraycopy(other.shipCell, 0, shipCell, 0, shipCount);
+        System.arraycopy(other.shipOrientation, 0, shipOrientation, 0, shipCount);
+        System.arraycopy(other.shipBow, 0, shipBow, 0, shipCount);
+        System.arraycopy(other.shipStern, 0, shipStern, 0, shipCount);
+        System.arraycopy(other.shipSpeed, 0, shipSpeed, 0, shipCount);
+        System.arraycopy(other.shipHealth, 0, shipHealth, 0, shipCount);
+        System.arraycopy(other.shipMineCooldown, 0, shipMineCooldown, 0, shipCount);
+        System.arraycopy(other.shipCannonCooldown, 0, shipCannonCooldown, 0, shipCount);
+        System.arraycopy(other.shipHealthWin, 0, shipHealthWin, 0, shipCount);
+        System.arraycopy(other.shipAlive, 0, shipAlive, 0, shipCount);
+        System.arraycopy(other.shipAction, 0, shipAction, 0, shipCount);
+        System.arraycopy(other.shipTargetX, 0, shipTargetX, 0, shipCount);
+        System.arraycopy(other.shipTargetY, 0, shipTargetY, 0, shipCount);
+        System.arraycopy(other.shipKeys, 0, shipKeys, 0, shipCount);
+
+        if (mineCell.length < other.mineCount) {
+            mineCell = new int[other.mineCell.length];
+        }
+        mineCount = other.mineCount;
+        System.arraycopy(other.mineCell, 0, mineCell, 0, mineCount);
+        System.arraycopy(other.minesAt, 0, minesAt, 0, EXT_CELL_COUNT);
+
+        if (barrelCell.length < other.barrelCount) {
+            barrelCell = new int[other.barrelCell.length];
+            barrelHealth = new int[other.barrelCell.length];
+        }
+        barrelCount = other.barrelCount;
+        System.arraycopy(other.barrelCell, 0, barrelCell, 0, barrelCount);
+        System.arraycopy(other.barrelHealth, 0, barrelHealth, 0, barrelCount);
+        System.arraycopy(other.barrelsAt, 0, barrelsAt, 0, EXT_CELL_COUNT);
+
+        if (cannonballCell.length < other.cannonballCount) {
+            cannonballCell = new int[other.cannonballCell.length];
+            cannonballTurns = new int[other.cannonballCell.length];
+        }
+        cannonballCount = other.cannonballCount;
+        System.arraycopy(other.cannonballCell, 0, cannonballCell, 0, cannonballCount);
+        System.arraycopy(other.cannonballTurns, 0, cannonballTurns, 0, cannonballCount);
+
+        explosionCount = 0;
+        hash = other.hash;
+    }
+
+    // ---
+    // Accessors
+    // ---
+
+    public int getShipCount() {
+        return shipCount;
+    }
+
+    public int getShipId(int ship) {
+        return shipId[ship];
+    }
+
+    public int getShipOwner(int ship) {
+        return shipOwner[ship];
+    }
+
+    public int getShipCell(int ship) {
+        return shipCell[ship];
+    }
+
+    public int getShipOrientation(int ship) {
+        return shipOrientation[ship];
+    }
+
+    public int getShipSpeed(int ship) {
+        return shipSpeed[ship];
+    }
+
+    public int getShipHealth(int ship) {
+        return shipHealth[ship];
+    }
+
+    public boolean isShipAlive(int ship) {
+        return shipAlive[ship];
+    }
+
+    public int getMineCount() {
+        return mineCount;
+    }
+
+    public int getMineCell(int mine) {
+        return mineCell[mine];
+    }
+
+    public int getBarrelCount() {
+        return barrelCount;
+    }
+
+    public int getBarrelCell(int barrel) {
+        return barrelCell[barrel];
+    }
+
+    public int getBarrelHealth(int barrel) {
+        return barrelHealth[barrel];
+    }
+
+    public int getCannonballCount() {
+        return cannonballCount;
+    }
+
+    public int getCannonballCell(int cannonball) {
+        return cannonballCell[cannonball];
+    }
+
+    public int getCannonballTurns(int cannonball) {
+        return cannonballTurns[cannonball];
+    }
+
+    public int getNumberOfShipsAlive(int playerId) {
+        int count = 0;
+        for (int i = 0; i < shipCount; i++) {
+            if (shipAlive[i] && shipOwner[i] == playerId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Same as Referee.getHealthWin
+     */
+    public int getHealthWin(int playerId) {
+        int healthWin = 0;
+        for (int i = 0; i < shipCount; i++) {
+            if (shipOwner[i] == playerId) {
+                healthWin += shipHealthWin[i];
+            }
+        }
+        return healthWin;
+    }
+
+    public int bow(int ship) {
+        return shipBow[ship];
+    }
+
+    public int stern(int ship) {
+        return shipStern[ship];
+    }
+
+    /**
+     * @return the state of the ship in SailingTable (cell, orientation and speed)
+     */
+    public int sailingState(int ship) {
+        return SailingTable.state(mapCell(shipCell[ship]), shipOrientation[ship], shipSpeed[ship]);
+    }
+
+    /**
+     * @param cell : index of the cell, inside the map
+     * @return the cell index of the map (Referee.Coord.cellIndex)
+     */
+    public static int mapCell(int cell) {
+        return Referee.Coord.cellIndex(EXT_X[cell], EXT_Y[cell]);
+    }
+
+    private boolean at(int ship, int cell) {
+        return shipCell[ship] == cell || shipBow[ship] == cell || shipStern[ship] == cell;
+    }
+
+    private void setNearMine(int cell, boolean near) {
+        nearMine[cell] = near;
+        for (int orientation = 0; orientation < 6; orientation++) {
+            int neighbor = EXT_NEIGHBORS[cell * 6 + orientation];
+            if (neighbor != NO_CELL) {
+                nearMine[neighbor] = near;
+            }
+        }
+    }
+
+    // Index of the shipNumber-th ship of the player (dead ships included, like Referee.Player.getShips)
+    private int shipOfPlayer(int playerId, int shipNumber) {
+        for (int i = 0; i < shipCount; i++) {
+            if (shipOwner[i] == playerId && shipNumber-- == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ---
+    // Actions
+    // ---
+
+    /**
+     * Same as Referee.prepare: the ships wait
+     */
+    public void prepare() {
+        for (int i = 0; i < shipCount; i++) {
+            shipAction[i] = Referee.ACTION_WAIT;
+        }
+    }
+
+    /**
+     * Same as Referee.handlePlayerActions
+     */
+    public void handlePlayerActions(int playerIdx, byte[] actions, int[] targets) {
+        int k = 0;
+        for (int i = 0; i < shipCount; i++) {
+            if (!shipAlive[i] || shipOwner[i] != playerIdx) {
+                continue;
+            }
+            setAction(i, actions[k], targets[2 * k], targets[2 * k + 1]);
+            k++;
+        }
+    }
+
+    public void setAction(int ship, byte action, int targetX, int targetY) {
+        switch (action) {
+            case Referee.ACTION_FIRE:
+                if (Referee.CANNONS_ENABLED) {
+                    shipAction[ship] = action;
+                    shipTargetX[ship] = targetX;
+                    shipTargetY[ship] = targetY;
+                }
+                break;
+            case Referee.ACTION_MINE:
+                if (Referee.MINES_ENABLED) {
+                    shipAction[ship] = action;
+                }
+                break;
+            case Referee.ACTION_MOVE:
+                shipAction[ship] = NavigationTable.moveAction(EXT_X[shipCell[ship]], EXT_Y[shipCell[ship]], shipOrientation[ship],
+                        shipSpeed[ship], targetX, targetY);
+                break;
+            case Referee.ACTION_WAIT:
+                break;
+            default:
+                shipAction[ship] = action;
+                break;
+        }
+    }
+
+    public static byte toActionCode(Referee.Action action) {
+        if (action == null) {
+            return Referee.ACTION_WAIT;
+        }
+        switch (action) {
+            case FASTER:
+                return Referee.ACTION_FASTER;
+            case SLOWER:
+                return Referee.ACTION_SLOWER;
+            case PORT:
+                return Referee.ACTION_PORT;
+            case STARBOARD:
+                return Referee.ACTION_STARBOARD;
+            case FIRE:
+                return Referee.ACTION_FIRE;
+            default:
+                return Referee.ACTION_MINE;
+        }
+    }
+
+    /**
+     * Same as Referee.getNextNearestEnnemyPosition
+     * @return the cell to fire on
+     */
+    public int getNextNearestEnnemyPosition(int myPlayerId, int myShipNumber) {
+        int shooter = shipOfPlayer(myPlayerId, myShipNumber);
+
+        int ennemyShip = -1;
+        int minimalDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < shipCount; i++) {
+            if (shipOwner[i] != 1 - myPlayerId) {
+                continue;
+            }
+            int distance = distance(shipCell[shooter], shipCell[i]);
+            if (distance < minimalDistance) {
+                minimalDistance = distance;
+                ennemyShip = i;
+            }
+        }
+
+        int nbRound = 1 + minimalDistance / 3;
+
+        int x = EXT_X[shipCell[ennemyShip]];
+        int y = EXT_Y[shipCell[ennemyShip]];
+        for (int i = 0; i < nbRound * shipSpeed[ennemyShip]; i++) {
+            int nextX = neighborX(x, y, shipOrientation[ennemyShip]);
+            y = neighborY(x, y, shipOrientation[ennemyShip]);
+            x = nextX;
+        }
+
+        if (x >= 0 && x < Referee.MAP_WIDTH && y >= 0 && y < Referee.MAP_HEIGHT) {
+            return cellOf(x, y);
+        }
+        return shipCell[ennemyShip];
+    }
+
+    // ---
+    // Rules (port of Referee.updateGame)
+    // ---
+
+    private void damage(int ship, int health) {
+        shipHealthWin[ship] -= health;
+        shipHealth[ship] -= health;
+        if (shipHealth[ship] <= 0) {
+            shipHealth[ship] = 0;
+        }
+    }
+
+    private void heal(int ship, int health) {
+        shipHealth[ship] += health;
+        shipHealthWin[ship] += health;
+        if (shipHealth[ship] > Referee.MAX_SHIP_HEALTH) {
+            shipHealth[ship] = Referee.MAX_SHIP_HEALTH;
+        }
+    }
+
+    private void moveCannonballs() {
+        int k = 0;
+        for (int i = 0; i < cannonballCount; i++) {
+            hash ^= cannonballKey(cannonballCell[i], cannonballTurns[i]);
+            if (cannonballTurns[i] == 0) {
+                continue;
+            } else if (cannonballTurns[i] > 0) {
+                cannonballTurns[i]--;
+            }
+            hash ^= cannonballKey(cannonballCell[i], cannonballTurns[i]);
+
+            if (cannonballTurns[i] == 0) {
+                addExplosion(cannonballCell[i]);
+            }
+            cannonballCell[k] = cannonballCell[i];
+            cannonballTurns[k] = cannonballTurns[i];
+            k++;
+        }
+        cannonballCount = k;
+    }
+
+    private void addExplosion(int cell) {
+        if (explosionCount == explosionCell.length) {
+            explosionCell = Arrays.copyOf(explosionCell, 2 * explosionCount);
+        }
+        explosionCell[explosionCount++] = cell;
+    }
+
+    private void removeExplosion(int index) {
+        System.arraycopy(explosionCell, index + 1, explosionCell, index, explosionCount - index - 1);
+        explosionCount--;
+    }
+
+    private void removeMine(int index) {
+        minesAt[mineCell[index]]--;
+        hash ^= MINE_KEYS[mineCell[index]];
+        System.arraycopy(mineCell, index + 1, mineCell, index, mineCount - index - 1);
+        mineCount--;
+    }
+
+    private void removeBarrel(int index) {
+        barrelsAt[barrelCell[index]]--;
+        hash ^= barrelKey(barrelCell[index], barrelHealth[index]);
+        System.arraycopy(barrelCell, index + 1, barrelCell, index, barrelCount - index - 1);
+        System.arraycopy(barrelHealth, index + 1, barrelHealth, index, barrelCount - index - 1);
+        barrelCount--;
+    }
+
+    private void decrementRum() {
+        for (int i = 0; i < shipCount; i++) {
+            if (shipAlive[i]) {
+                damage(i, 1);
+            }
+        }
+    }
+
+    private void applyActions() {
+        for (int i = 0; i < shipCount; i++) {
+            if (!shipAlive[i]) {
+                continue;
+            }
+            if (shipMineCooldown[i] > 0) {
+                shipMineCooldown[i]--;
+            }
+            if (shipCannonCooldown[i] > 0) {
+                shipCannonCooldown[i]--;
+            }
+
+            newOrientation[i] = shipOrientation[i];
+
+            switch (shipAction[i]) {
+                case Referee.ACTION_FASTER:
+                    if (shipSpeed[i] < Referee.MAX_SHIP_SPEED) {
+                        shipSpeed[i]++;
+                    }
+                    break;
+                case Referee.ACTION_SLOWER:
+                    if (shipSpeed[i] > 0) {
+                        shipSpeed[i]--;
+                    }
+                    break;
+                case Referee.ACTION_PORT:
+                    newOrientation[i] = (shipOrientation[i] + 1) % 6;
+                    break;
+                case Referee.ACTION_STARBOARD:
+                    newOrientation[i] = (shipOrientation[i] + 5) % 6;
+                    break;
+                case Referee.ACTION_MINE:
+                    if (shipMineCooldown[i] == 0) {
+                        int target = neighbor(stern(i), (shipOrientation[i] + 3) % 6);
+
+                        if (isInsideMap(target)) {
+                            boolean cellIsFreeOfShips = true;
+                            for (int j = 0; j < shipCount; j++) {
+                                if (j != i && shipAlive[j] && at(j, target)) {
+                                    cellIsFreeOfShips = false;
+                                    break;
+                                }
+                            }
+
+                            if (barrelsAt[target] == 0 && cellIsFreeOfShips) {
+                                shipMineCooldown[i] = Referee.COOLDOWN_MINE;
+                                addMine(target);
+                            }
+                        }
+                    }
+                    break;
+                case Referee.ACTION_FIRE:
+                    int target = cellOf(shipTargetX[i], shipTargetY[i]);
+                    if (isInsideMap(target) && shipCannonCooldown[i] == 0) {
+                        int distance = distance(bow(i), target);
+                        if (distance <= Referee.FIRE_DISTANCE_MAX) {
+                            int travelTime = (int) (1 + Math.round(distance / 3.0));
+                            addCannonball(target, travelTime);
+                            shipCannonCooldown[i] = Referee.COOLDOWN_CANNON;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Same as Mine.explode on the ships of the game
+     * @return true if the mine exploded
+     */
+    private boolean explodeMine(int cell, boolean force) {
+        int victim = -1;
+
+        for (int i = 0; i < shipCount; i++) {
+            if (shipAlive[i] && at(i, cell)) {
+                damage(i, Referee.MINE_DAMAGE);
+                victim = i;
+            }
+        }
+
+        if (force || victim != -1) {
+            // The cells at a distance <= 1 of the mine
+            setNearMine(cell, true);
+            for (int i = 0; i < shipCount; i++) {
+                if (shipAlive[i] && i != victim) {
+                    if (nearMine[shipStern[i]] || nearMine[shipBow[i]] || nearMine[shipCell[i]]) {
+                        damage(i, Referee.NEAR_MINE_DAMAGE);
+                    }
+                }
+            }
+            setNearMine(cell, false);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean checkCollisions(int ship) {
+        int bow = shipBow[ship];
+        int stern = shipStern[ship];
+        int center = shipCell[ship];
+
+        // Collision with the barrels
+        if ((bow != NO_CELL && barrelsAt[bow] > 0) || (stern != NO_CELL && barrelsAt[stern] > 0) || barrelsAt[center] > 0) {
+            for (int i = 0; i < barrelCount; i++) {
+                int cell = barrelCell[i];
+                if (cell == bow || cell == stern || cell == center) {
+                    heal(ship, barrelHealth[i]);
+                    removeBarrel(i);
+                    i--;
+                }
+            }
+        }
+
+        // Collision with the mines. Referee explodes the mines under any ship, but only the ship checked can be on a
+        // mine: the others were checked since their last move and the mines of the round are put on free cells
+        if (minesAt[center] > 0 || (bow != NO_CELL && minesAt[bow] > 0) || (stern != NO_CELL && minesAt[stern] > 0)) {
+            for (int i = 0; i < mineCount; i++) {
+                int cell = mineCell[i];
+                if (cell != bow && cell != stern && cell != center) {
+                    continue;
+                }
+                if (explodeMine(cell, false)) {
+                    removeMine(i);
+                    i--;
+                }
+            }
+        }
+
+        return shipHealth[ship] <= 0;
+    }
+
+    // Same as Ship.newBowIntersect on the alive ships, with shipsOnCell
+    private boolean newBowIntersect(int ship) {
+        return (shipsOnCell[newBow[ship]] & ~(1 << ship)) != 0;
+    }
+
+    // Same as Ship.newPositionsIntersect on the alive ships, with shipsOnCell
+    private boolean newPositionsIntersect(int ship) {
+        return ((shipsOnCell[newBow[ship]] | shipsOnCell[newCell[ship]] | shipsOnCell[newStern[ship]]) & ~(1 << ship)) != 0;
+    }
+
+    private void markNewPosition(int ship) {
+        shipsOnCell[newBow[ship]] |= 1 << ship;
+        shipsOnCell[newCell[ship]] |= 1 << ship;
+        shipsOnCell[newStern[ship]] |= 1 << ship;
+    }
+
+    private void unmarkNewPosition(int ship) {
+        shipsOnCell[newBow[ship]] &= ~(1 << ship);
+        shipsOnCell[newCell[ship]] &= ~(1 << ship);
+        shipsOnCell[newStern[ship]] &= ~(1 << ship);
+    }
+
+    private void moveShips() {
+        for (int step = 1; step <= Referee.MAX_SHIP_SPEED; step++) {
+            for (int i = 0; i < shipCount; i++) {
+                if (!shipAlive[i]) {
+                    continue;
+                }
+                newCell[i] = shipCell[i];
+                newBow[i] = shipBow[i];
+                newStern[i] = shipStern[i];
+
+                if (step > shipSpeed[i]) {
+                    continue;
+                }
+
+                int newCoordinate = neighbor(shipCell[i], shipOrientation[i]);
+
+                if (isInsideMap(newCoordinate)) {
+                    newCell[i] = newCoordinate;
+                    newBow[i] = neighbor(newCoordinate, shipOrientation[i]);
+                    newStern[i] = neighbor(newCoordinate, (shipOrientation[i] + 3) % 6);
+                } else {
+                    shipSpeed[i] = 0;
+                }
+            }
+
+            for (int i = 0; i < shipCount; i++) {
+                if (shipAlive[i]) {
+                    markNewPosition(i);
+                }
+            }
+
+            // Check ship and obstacles collisions
+            boolean collisionDetected = true;
+            // Same guard as Referee.moveShips: at most one pass by ship and a last one
+            int passes = 0;
+            while (collisionDetected && passes++ <= shipCount) {
+                collisionDetected = false;
+
+                for (int i = 0; i < shipCount; i++) {
+                    collision[i] = shipAlive[i] && newBowIntersect(i);
+                }
+
+                for (int i = 0; i < shipCount; i++) {
+                    if (collision[i]) {
+                        unmarkNewPosition(i);
+                        newCell[i] = shipCell[i];
+                        newBow[i] = shipBow[i];
+                        newStern[i] = shipStern[i];
+                        markNewPosition(i);
+                        shipSpeed[i] = 0;
+                        collisionDetected = true;
+                    }
+                }
+            }
+
+            for (int i = 0; i < shipCount; i++) {
+                if (shipAlive[i]) {
+                    unmarkNewPosition(i);
+                }
+            }
+
+            for (int i = 0; i < shipCount; i++) {
+                if (!shipAlive[i] || shipHealth[i] == 0) {
+                    continue;
+                }
+
+                shipCell[i] = newCell[i];
+                shipBow[i] = newBow[i];
+                shipStern[i] = newStern[i];
+                if (checkCollisions(i)) {
+                    lostShips[lostShipCount++] = i;
+                }
+            }
+        }
+    }
+
+    private void rotateShips() {
+        for (int i = 0; i < shipCount; i++) {
+            if (!shipAlive[i]) {
+                continue;
+            }
+            newCell[i] = shipCell[i];
+            newBow[i] = neighbor(shipCell[i], newOrientation[i]);
+            newStern[i] = neighbor(shipCell[i], (newOrientation[i] + 3) % 6);
+            markNewPosition(i);
+        }
+
+        boolean collisionDetected = true;
+        // Same guard as Referee.moveShips: at most one pass by ship and a last one
+        int passes = 0;
+        while (collisionDetected && passes++ <= shipCount) {
+            collisionDetected = false;
+
+            for (int i = 0; i < shipCount; i++) {
+                collision[i] = shipAlive[i] && newPositionsIntersect(i);
+            }
+
+            for (int i = 0; i < shipCount; i++) {
+                if (collision[i]) {
+                    unmarkNewPosition(i);
+                    newOrientation[i] = shipOrientation[i];
+                    newBow[i] = shipBow[i];
+                    newStern[i] = shipStern[i];
+                    markNewPosition(i);
+                    shipSpeed[i] = 0;
+                    collisionDetected = true;
+                }
+            }
+        }
+
+        for (int i = 0; i < shipCount; i++) {
+            if (shipAlive[i]) {
+                unmarkNewPosition(i);
+            }
+        }
+
+        for (int i = 0; i < shipCount; i++) {
+            if (!shipAlive[i] || shipHealth[i] == 0) {
+                continue;
+            }
+
+            shipOrientation[i] = newOrientation[i];
+            shipBow[i] = newBow[i];
+            shipStern[i] = newStern[i];
+            if (checkCollisions(i)) {
+                lostShips[lostShipCount++] = i;
+            }
+        }
+    }
+
+    private void explodeShips() {
+        for (int e = 0; e < explosionCount; e++) {
+            int cell = explosionCell[e];
+            for (int i = 0; i < shipCount; i++) {
+                if (!shipAlive[i]) {
+                    continue;
+                }
+                if (cell == bow(i) || cell == stern(i)) {
+                    damage(i, Referee.LOW_DAMAGE);
+                    removeExplosion(e--);
+                    break;
+                } else if (cell == shipCell[i]) {
+                    damage(i, Referee.HIGH_DAMAGE);
+                    removeExplosion(e--);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void explodeMines() {
+        for (int e = 0; e < explosionCount; e++) {
+            int cell = explosionCell[e];
+            if (minesAt[cell] == 0) {
+                continue;
+            }
+            for (int i = 0; i < mineCount; i++) {
+                if (mineCell[i] == cell) {
+                    explodeMine(cell, true);
+                    removeMine(i);
+                    removeExplosion(e--);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void explodeBarrels() {
+        for (int e = 0; e < explosionCount; e++) {
+            int cell = explosionCell[e];
+            if (barrelsAt[cell] == 0) {
+                continue;
+            }
+            for (int i = 0; i < barrelCount; i++) {
+                if (barrelCell[i] == cell) {
+                    removeBarrel(i);
+                    removeExplosion(e--);
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean gameIsOver() {
+        for (int playerId = 0; playerId < 2; playerId++) {
+            if (getNumberOfShipsAlive(playerId) == 0) {
+                return true;
+            }
+        }
+        return barrelCount == 0 && Referee.LEAGUE_LEVEL == 0;
+    }
+
+    /**
+     * Play a round with the actions of the ships (same as Referee.updateGame)
+     * @return true if the game is over
+     */
+    public boolean update() {
+        explosionCount = 0;
+        lostShipCount = 0;
+
+        moveCannonballs();
+        decrementRum();
+
+        applyActions();
+        moveShips();
+        rotateShips();
+
+        explodeShips();
+        explodeMines();
+        explodeBarrels();
+
+        for (int i = 0; i < lostShipCount; i++) {
+            addBarrel(shipCell[lostShips[i]], Referee.REWARD_RUM_BARREL_VALUE);
+        }
+
+        // The ships alive in the round change (rum at least), the dead ones keep their key
+        for (int i = 0; i < shipCount; i++) {
+            if (!shipAlive[i]) {
+                continue;
+            }
+            if (shipHealth[i] <= 0) {
+                shipAlive[i] = false;
+            }
+            long key = shipKey(i);
+            hash ^= shipKeys[i] ^ key;
+            shipKeys[i] = key;
+        }
+
+        return gameIsOver();
+    }
+
+    // ---
+    // Hash
+    // ---
+
+    /**
+     * @return the Zobrist hash of the state (ships, mines, barrels and cannonballs, not the actions)
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the hash computed from all the entities, must be equal to getHash
+     */
+    public long computeHash() {
+        long result = shipsKey();
+        for (int i = 0; i < mineCount; i++) {
+            result ^= MINE_KEYS[mineCell[i]];
+        }
+        for (int i = 0; i < barrelCount; i++) {
+            result ^= barrelKey(barrelCell[i], barrelHealth[i]);
+        }
+        for (int i = 0; i < cannonballCount; i++) {
+            result ^= cannonballKey(cannonballCell[i], cannonballTurns[i]);
+        }
+        return result;
+    }
+
+    private long shipsKey() {
+        long result = 0;
+        for (int i = 0; i < shipCount; i++) {
+            result ^= shipKey(i);
+        }
+        return result;
+    }
+
+    private long shipKey(int ship) {
+        long fields = shipCell[ship];
+        fields = fields << 3 | shipOrientation[ship];
+        fields = fields << 2 | shipSpeed[ship];
+        fields = fields << 7 | shipHealth[ship];
+        fields = fields << 3 | shipMineCooldown[ship];
+        fields = fields << 2 | shipCannonCooldown[ship];
+        fields = fields << 1 | (shipAlive[ship] ? 1 : 0);
+        fields = fields << 32 | (shipHealthWin[ship] & 0xFFFFFFFFL);
+        return FastRandom.mix(SHIP_KEYS[ship] ^ fields);
+    }
+
+    private static long barrelKey(int cell, int health) {
+        return FastRandom.mix(BARREL_KEYS[cell] + health);
+    }
+
+    private static long cannonballKey(int cell, int remainingTurns) {
+        return FastRandom.mix(CANNONBALL_KEYS[cell] + remainingTurns);
+    }
+}
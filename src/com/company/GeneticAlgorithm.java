@@ -0,0 +1,203 @@
+package com.company;
+
+/**
+ * Genetic algorithm on the solutions of Player (vector [ship1MoveAtRound1, ship2MoveAtRound1, ...]).
+ * The whole population is stored in one flat array and the next generation is written in a second one,
+ * so no array is allocated during the search. The best solution is kept for the next round.
+ * An instance has its own simulation buffers: several instances can search at the same time (one for each thread).
+ */
+class GeneticAlgorithm {
+
+    private final int populationSize;
+    private final int tournamentSize;
+    private final FastRandom random;
+
+    private final GameState rootState = new GameState();
+    private final GameState testState = new GameState();
+    private final byte[] actions = new byte[Referee.MAX_SHIPS];
+    private final int[] targets = new int[2 * Referee.MAX_SHIPS];
+    private OpponentModel opponentModel = new OpponentModel(OpponentModel.Policy.WAIT);
+    private Evaluator evaluator = new ScoreEvaluator();
+
+    private int genomeLength;
+    // populationSize solutions of genomeLength genes
+    private int[] population;
+    private int[] nextPopulation;
+    private int[] scores;
+    private int[] nextScores;
+
+    private int[] bestSolution;
+    private int bestScore;
+    private boolean hasBestSolution;
+
+    // Statistics of the last search
+    private int evaluations;
+    private int generations;
+
+    public GeneticAlgorithm(int populationSize, int tournamentSize) {
+        this(populationSize, tournamentSize, FastRandom.create());
+    }
+
+    /**
+     * @param random : random numbers of the search (a seeded one gives the same search for the same evaluations)
+     */
+    public GeneticAlgorithm(int populationSize, int tournamentSize, FastRandom random) {
+        this.populationSize = populationSize;
+        this.tournamentSize = tournamentSize;
+        this.random = random;
+        this.scores = new int[populationSize];
+        this.nextScores = new int[populationSize];
+    }
+
+    /**
+     * @param opponentModel : actions of the ennemy in the simulations, prepared at each search
+     */
+    public void setOpponentModel(OpponentModel opponentModel) {
+        this.opponentModel = opponentModel;
+    }
+
+    /**
+     * @param evaluator : score of the simulated states, prepared at each search
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Search the best solution until the end of the time of the round and print its first actions
+     * @param turnBudget : time of the round, already started
+     * @param nbRoundGenerated : nb of rounds of a solution
+     * @param myShipCount : nb of ships
+     */
+    public void play(TurnBudget turnBudget, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+
+        search(turnBudget, nbRoundGenerated, myShipCount, ref, round);
+        System.err.println("Number of solutions evaluated: " + evaluations + " generations: " + generations);
+        Player.displayFirstAction(bestSolution, bestScore, myShipCount, ref);
+
+        // Next round starts one round later in the solution
+        Player.shiftSolution(bestSolution, myShipCount, random);
+    }
+
+    /**
+     * Same as play but the outputs are returned instead of printed, nothing is printed (self-play games)
+     * @return the outputs of the ships for the round
+     */
+    public String[] nextOutputs(TurnBudget turnBudget, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+
+        search(turnBudget, nbRoundGenerated, myShipCount, ref, round);
+        String[] outputs = Player.getOutputOfSolution(bestSolution, 0, myShipCount, ref);
+
+        Player.shiftSolution(bestSolution, myShipCount, random);
+        return outputs;
+    }
+
+    private void search(TurnBudget turnBudget, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+
+        ref.saveState(rootState);
+        opponentModel.prepare(rootState, nbRoundGenerated, turnBudget);
+        evaluator.prepare(rootState, nbRoundGenerated);
+        initPopulation(nbRoundGenerated * myShipCount);
+
+        // At least the first solution is evaluated to always have an answer
+        int i = 0;
+        for (int k = 0; k < populationSize && (k == 0 || turnBudget.hasTime()); k++) {
+            scores[k] = evaluate(population, k, nbRoundGenerated, myShipCount, ref, round);
+            i++;
+        }
+
+        int generation = 0;
+        boolean populationEvaluated = i == populationSize;
+        while (populationEvaluated) {
+
+            // Elitism: the best solution stays in the population
+            System.arraycopy(bestSolution, 0, nextPopulation, 0, genomeLength);
+            nextScores[0] = bestScore;
+
+            int k = 1;
+            while (k < populationSize && turnBudget.hasTime()) {
+                crossover(tournament(), tournament(), k);
+                Player.mutation(nextPopulation, k * genomeLength, genomeLength, random);
+                nextScores[k] = evaluate(nextPopulation, k, nbRoundGenerated, myShipCount, ref, round);
+                i++;
+                k++;
+            }
+
+            if (k < populationSize) {
+                break;
+            }
+
+            int[] tmp = population;
+            population = nextPopulation;
+            nextPopulation = tmp;
+            int[] tmpScores = scores;
+            scores = nextScores;
+            nextScores = tmpScores;
+            generation++;
+        }
+
+        evaluations = i;
+        generations = generation;
+    }
+
+    private void initPopulation(int length) {
+        if (length != genomeLength) {
+            genomeLength = length;
+            population = new int[populationSize * genomeLength];
+            nextPopulation = new int[populationSize * genomeLength];
+            bestSolution = new int[genomeLength];
+            hasBestSolution = false;
+        }
+
+        for (int i = 0; i < population.length; i++) {
+            population[i] = random.nextInt(7);
+        }
+
+        // Start from the best solution of the last round
+        if (hasBestSolution) {
+            System.arraycopy(bestSolution, 0, population, 0, genomeLength);
+        }
+
+        hasBestSolution = false;
+        bestScore = -Integer.MAX_VALUE;
+    }
+
+    private int evaluate(int[] solutions, int index, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+        int score = Player.evaluateSolution(round, nbRoundGenerated, myShipCount, solutions, index * genomeLength, rootState, testState,
+                actions, targets, opponentModel, evaluator);
+
+        if (!hasBestSolution || score > bestScore) {
+            bestScore = score;
+            hasBestSolution = true;
+            System.arraycopy(solutions, index * genomeLength, bestSolution, 0, genomeLength);
+        }
+        return score;
+    }
+
+    /**
+     * @return index of the best of tournamentSize random solutions of the population
+     */
+    private int tournament() {
+        int best = random.nextInt(populationSize);
+        for (int i = 1; i < tournamentSize; i++) {
+            int challenger = random.nextInt(populationSize);
+            if (scores[challenger] > scores[best]) {
+                best = challenger;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Uniform crossover of two solutions of the population, written in the child slot of the next population
+     */
+    private void crossover(int parent1, int parent2, int child) {
+        int offset1 = parent1 * genomeLength;
+        int offset2 = parent2 * genomeLength;
+        int childOffset = child * genomeLength;
+
+        for (int i = 0; i < genomeLength; i++) {
+            nextPopulation[childOffset + i] = random.nextBoolean() ? population[offset1 + i] : population[offset2 + i];
+        }
+    }
+}
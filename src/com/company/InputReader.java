@@ -0,0 +1,119 @@
+package com.company;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffered reader of the input of the game, replacing Scanner (regex based and slow to warm up).
+ * Integers are parsed from the bytes and the entity types are returned as int codes, so nothing is allocated.
+ */
+class InputReader {
+
+    public static final int ENTITY_UNKNOWN = -1;
+    public static final int ENTITY_SHIP = 0;
+    public static final int ENTITY_BARREL = 1;
+    public static final int ENTITY_MINE = 2;
+    public static final int ENTITY_CANNONBALL = 3;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int length = 0;
+    private int position = 0;
+
+    public InputReader(InputStream in) {
+        this.in = in;
+    }
+
+    private int read() {
+        if (position == length) {
+            try {
+                length = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (length <= 0) {
+                length = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    // First character of the next token (same end of input exception as Scanner)
+    private int skipBlanks() {
+        int c = read();
+        while (c != -1 && c <= ' ') {
+            c = read();
+        }
+        if (c == -1) {
+            throw new NoSuchElementException();
+        }
+        return c;
+    }
+
+    /**
+     * @return the next integer
+     * @throws InputMismatchException if the token is not an integer (like Scanner, 12x, - or a too big number)
+     */
+    public int nextInt() {
+        int c = skipBlanks();
+        boolean negative = c == '-';
+        if (negative) {
+            c = read();
+        }
+
+        int value = 0;
+        int digits = 0;
+        while (c >= '0' && c <= '9') {
+            int digit = c - '0';
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                throw new InputMismatchException("Integer too big");
+            }
+            value = value * 10 + digit;
+            digits++;
+            c = read();
+        }
+        // The token must end with a blank or the end of the input
+        if (digits == 0 || c > ' ') {
+            throw new InputMismatchException("Not an integer");
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Read an entity type (SHIP, BARREL, MINE or CANNONBALL)
+     * @return the ENTITY_* code of the type
+     */
+    public int nextEntityType() {
+        int c = skipBlanks();
+
+        int type;
+        switch (c) {
+            case 'S':
+                type = ENTITY_SHIP;
+                break;
+            case 'B':
+                type = ENTITY_BARREL;
+                break;
+            case 'M':
+                type = ENTITY_MINE;
+                break;
+            case 'C':
+                type = ENTITY_CANNONBALL;
+                break;
+            default:
+                type = ENTITY_UNKNOWN;
+                break;
+        }
+
+        // Skip the end of the token
+        while (c > ' ') {
+            c = read();
+        }
+        return type;
+    }
+}
@@ -30,7 +30,9 @@ class Main {
             outputs[1] = "MOVE 17 17";
             ref.handlePlayerOutput(1,round,1,outputs);
 
-            ref.updateGame(round);
+            if (ref.updateGame(round) == Referee.Outcome.GAME_OVER) {
+                break;
+            }
             String[] action = ref.getPlayerActions(1,round);
             String[] inputs = ref.getInputForPlayer(round,1);
 
@@ -38,6 +40,7 @@ class Main {
 
 
             ref.displayMap();
+            round++;
         }
 
         //int myShipCount = Integer.parseInt(inputs[0]);
@@ -0,0 +1,216 @@
+package com.company;
+
+/**
+ * Monte Carlo Tree Search on the solutions of Player (vector [ship1MoveAtRound1, ship2MoveAtRound1, ...]).
+ * A level of the tree is the action of one ship at one round (the 7 action codes of the solutions), so the depth d
+ * of the tree is the gene d of the solution. The children are chosen with UCT, the genes after the node are random
+ * (rollout) and the whole solution is simulated and scored with Player.evaluateSolution.
+ * The nodes sum the raw scores, the means are brought between 0 and 1 in UCT with the min and max scores seen so far,
+ * so the old visits do not keep the scale of the first iterations.
+ * The nodes are stored in arrays allocated once (the 7 children of a node are consecutive), the pool is reset at
+ * each round so the tree does not allocate during the search.
+ */
+class MonteCarloTreeSearch {
+
+    private static final int NB_ACTIONS = 7;
+    private static final int NO_CHILD = -1;
+
+    private final int maxNodes;
+    private final double exploration;
+    private final FastRandom random = FastRandom.create();
+
+    private final GameState rootState = new GameState();
+    private final GameState testState = new GameState();
+    private final byte[] actions = new byte[Referee.MAX_SHIPS];
+    private final int[] targets = new int[2 * Referee.MAX_SHIPS];
+    private OpponentModel opponentModel = new OpponentModel(OpponentModel.Policy.WAIT);
+    private Evaluator evaluator = new ScoreEvaluator();
+
+    // Pool of nodes, the node 0 is the root
+    private final int[] firstChild;
+    private final int[] visits;
+    private final double[] totalScore;
+    private int nodeCount;
+
+    // Path of the current iteration (nodes after the root)
+    private int[] path = new int[0];
+    private int[] solution = new int[0];
+    private int[] plan = new int[0];
+
+    // Scores seen during the round, to bring the means of UCT between 0 and 1
+    private int minScore;
+    private int maxScore;
+
+    /**
+     * @param maxNodes : size of the pool of nodes
+     * @param exploration : constant of UCT (values between 0 and 1)
+     */
+    public MonteCarloTreeSearch(int maxNodes, double exploration) {
+        this.maxNodes = maxNodes;
+        this.exploration = exploration;
+        this.firstChild = new int[maxNodes];
+        this.visits = new int[maxNodes];
+        this.totalScore = new double[maxNodes];
+    }
+
+    /**
+     * @param opponentModel : actions of the ennemy in the simulations, prepared at each search
+     */
+    public void setOpponentModel(OpponentModel opponentModel) {
+        this.opponentModel = opponentModel;
+    }
+
+    /**
+     * @param evaluator : score of the simulated states, prepared at each search
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Search until the end of the time of the round and print the first actions of the plan: the most visited path
+     * of the tree, with the mean score of its last node
+     * @param turnBudget : time of the round, already started
+     * @param nbRoundGenerated : nb of rounds of a solution
+     * @param myShipCount : nb of ships
+     */
+    public void play(TurnBudget turnBudget, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+
+        ref.saveState(rootState);
+        opponentModel.prepare(rootState, nbRoundGenerated, turnBudget);
+        evaluator.prepare(rootState, nbRoundGenerated);
+
+        int genomeLength = nbRoundGenerated * myShipCount;
+        if (solution.length != genomeLength) {
+            path = new int[genomeLength];
+            solution = new int[genomeLength];
+            plan = new int[genomeLength];
+        }
+
+        resetTree();
+        minScore = Integer.MAX_VALUE;
+        maxScore = -Integer.MAX_VALUE;
+
+        // At least one iteration to always have an answer
+        int i = 0;
+        while (i == 0 || turnBudget.hasTime()) {
+            int depth = select(genomeLength);
+
+            // Rollout: random genes after the tree
+            for (int k = depth; k < genomeLength; k++) {
+                solution[k] = random.nextInt(NB_ACTIONS);
+            }
+
+            int score = Player.evaluateSolution(round, nbRoundGenerated, myShipCount, solution, 0, rootState, testState, actions, targets,
+                    opponentModel, evaluator);
+            minScore = Math.min(minScore, score);
+            maxScore = Math.max(maxScore, score);
+
+            backPropagate(depth, score);
+            i++;
+        }
+
+        // Plan: most visited children until a leaf, then random genes like the rollouts of the mean of the leaf
+        int node = 0;
+        int depth = 0;
+        while (depth < genomeLength && firstChild[node] != NO_CHILD && visits[mostVisitedChild(node)] > 0) {
+            int child = mostVisitedChild(node);
+            plan[depth] = child - firstChild[node];
+            node = child;
+            depth++;
+        }
+        for (int k = depth; k < genomeLength; k++) {
+            plan[k] = random.nextInt(NB_ACTIONS);
+        }
+        int planScore = (int) Math.round(totalScore[node] / visits[node]);
+
+        System.err.println("Number of solutions evaluated: " + i + " nodes: " + nodeCount + " plan depth: " + depth);
+        Player.displayFirstAction(plan, planScore, myShipCount, ref);
+    }
+
+    private void resetTree() {
+        nodeCount = 1;
+        firstChild[0] = NO_CHILD;
+        visits[0] = 0;
+        totalScore[0] = 0;
+    }
+
+    /**
+     * Go down the tree with UCT, expand the last node when it was already visited
+     * @return depth reached (nb of genes of solution set by the tree)
+     */
+    private int select(int genomeLength) {
+        int node = 0;
+        int depth = 0;
+
+        while (depth < genomeLength) {
+            if (firstChild[node] == NO_CHILD) {
+                if (visits[node] == 0 || !expand(node)) {
+                    break;
+                }
+            }
+            int child = uctChild(node);
+            solution[depth] = child - firstChild[node];
+            path[depth] = child;
+            node = child;
+            depth++;
+        }
+        return depth;
+    }
+
+    private boolean expand(int node) {
+        if (nodeCount + NB_ACTIONS > maxNodes) {
+            return false;
+        }
+        firstChild[node] = nodeCount;
+        for (int k = nodeCount; k < nodeCount + NB_ACTIONS; k++) {
+            firstChild[k] = NO_CHILD;
+            visits[k] = 0;
+            totalScore[k] = 0;
+        }
+        nodeCount += NB_ACTIONS;
+        return true;
+    }
+
+    private int uctChild(int node) {
+        int first = firstChild[node];
+        double logVisits = Math.log(visits[node]);
+        double scoreRange = maxScore - minScore;
+
+        int best = first;
+        double bestValue = -Double.MAX_VALUE;
+        for (int child = first; child < first + NB_ACTIONS; child++) {
+            if (visits[child] == 0) {
+                return child;
+            }
+            double mean = totalScore[child] / visits[child];
+            double normalizedMean = scoreRange == 0 ? 0.5 : (mean - minScore) / scoreRange;
+            double value = normalizedMean + exploration * Math.sqrt(logVisits / visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private void backPropagate(int depth, int score) {
+        visits[0]++;
+        totalScore[0] += score;
+        for (int k = 0; k < depth; k++) {
+            visits[path[k]]++;
+            totalScore[path[k]] += score;
+        }
+    }
+
+    private int mostVisitedChild(int node) {
+        int first = firstChild[node];
+        int best = first;
+        for (int child = first + 1; child < first + NB_ACTIONS; child++) {
+            if (visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        return best;
+    }
+}
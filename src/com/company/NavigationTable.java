@@ -0,0 +1,124 @@
+package com.company;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Table of the actions of the MOVE command (Referee.Ship.navigate) for the targets inside the map.
+ * The table of a target is computed the first time the target is used: one byte (ACTION_* code, ACTION_WAIT when
+ * navigate returns null) for each cell, orientation and speed of the ship, so navigate and its angles are only
+ * computed once by state. The actions are the ones of navigate, so the tie-breaking is the same.
+ * The tables are published with an AtomicReferenceArray: the threads of the searches can share them.
+ */
+class NavigationTable {
+
+    private static final int CELL_COUNT = Referee.Coord.CELL_COUNT;
+    private static final int NB_SPEEDS = Referee.MAX_SHIP_SPEED + 1;
+    private static final int STATES_BY_CELL = 6 * NB_SPEEDS;
+
+    // Table of each target cell, null until the target is used
+    private static final AtomicReferenceArray<byte[]> TABLES = new AtomicReferenceArray<>(CELL_COUNT);
+
+    // Referee action of each ACTION_* code of the table (WAIT is null)
+    private static final Referee.Action[] ACTIONS = new Referee.Action[Referee.ACTION_MOVE + 1];
+
+    static {
+        ACTIONS[Referee.ACTION_FASTER] = Referee.Action.FASTER;
+        ACTIONS[Referee.ACTION_SLOWER] = Referee.Action.SLOWER;
+        ACTIONS[Referee.ACTION_PORT] = Referee.Action.PORT;
+        ACTIONS[Referee.ACTION_STARBOARD] = Referee.Action.STARBOARD;
+    }
+
+    private NavigationTable() {
+    }
+
+    /**
+     * Same as Referee.Ship.navigate from the position (x, y) to (targetX, targetY)
+     * @return the ACTION_* code (ACTION_WAIT if navigate returns null)
+     */
+    public static byte moveAction(int x, int y, int orientation, int speed, int targetX, int targetY) {
+        if (!isInsideMap(x, y) || !isInsideMap(targetX, targetY) || speed < 0 || speed >= NB_SPEEDS) {
+            return GameState.toActionCode(Referee.Ship.navigate(Referee.Coord.of(x, y), orientation, speed,
+                    Referee.Coord.of(targetX, targetY)));
+        }
+        return moveAction(Referee.Coord.cellIndex(x, y), orientation, speed, Referee.Coord.cellIndex(targetX, targetY));
+    }
+
+    /**
+     * @param cell : cell index of the ship (inside the map)
+     * @param speed : speed of the ship (0 to MAX_SHIP_SPEED)
+     * @param targetCell : cell index of the target (inside the map)
+     * @return the ACTION_* code
+     */
+    public static byte moveAction(int cell, int orientation, int speed, int targetCell) {
+        return build(targetCell)[cell * STATES_BY_CELL + orientation * NB_SPEEDS + speed];
+    }
+
+    /**
+     * @return true if the table of the target is computed
+     */
+    public static boolean isBuilt(int targetCell) {
+        return TABLES.get(targetCell) != null;
+    }
+
+    /**
+     * Compute the table of the target if it is not computed yet (about 1.5 ms)
+     * @return the table of the target
+     */
+    public static byte[] build(int targetCell) {
+        byte[] table = TABLES.get(targetCell);
+        if (table == null) {
+            table = buildTable(targetCell);
+            TABLES.set(targetCell, table);
+        }
+        return table;
+    }
+
+    /**
+     * @return the Referee action of the code of the table (null for ACTION_WAIT)
+     */
+    public static Referee.Action toAction(byte code) {
+        return ACTIONS[code];
+    }
+
+    /**
+     * Compute the tables of all the targets (about 4 MB and 600 ms)
+     */
+    public static void buildAll() {
+        buildAll(Long.MAX_VALUE);
+    }
+
+    /**
+     * Compute the tables of the targets until the deadline: the tables not computed in time are computed at their
+     * first use
+     * @param deadlineNanos : date (System.nanoTime) after which no table is computed
+     * @return true if all the tables are computed
+     */
+    public static boolean buildAll(long deadlineNanos) {
+        for (int targetCell = 0; targetCell < CELL_COUNT; targetCell++) {
+            if (System.nanoTime() >= deadlineNanos) {
+                return false;
+            }
+            build(targetCell);
+        }
+        return true;
+    }
+
+    private static byte[] buildTable(int targetCell) {
+        Referee.Coord target = Referee.Coord.of(targetCell % Referee.MAP_WIDTH, targetCell / Referee.MAP_WIDTH);
+        byte[] table = new byte[CELL_COUNT * STATES_BY_CELL];
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            Referee.Coord position = Referee.Coord.of(cell % Referee.MAP_WIDTH, cell / Referee.MAP_WIDTH);
+            for (int orientation = 0; orientation < 6; orientation++) {
+                for (int speed = 0; speed < NB_SPEEDS; speed++) {
+                    table[cell * STATES_BY_CELL + orientation * NB_SPEEDS + speed] =
+                            GameState.toActionCode(Referee.Ship.navigate(position, orientation, speed, target));
+                }
+            }
+        }
+        return table;
+    }
+
+    private static boolean isInsideMap(int x, int y) {
+        return x >= 0 && x < Referee.MAP_WIDTH && y >= 0 && y < Referee.MAP_HEIGHT;
+    }
+}
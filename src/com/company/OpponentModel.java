@@ -0,0 +1,242 @@
+package com.company;
+
+/**
+ * Actions of the ennemy (player 0) in the simulations of the searches. Without a model the ennemy ships wait
+ * at each simulated round (their action is reset by prepare).
+ * The model is prepared once by round from the state of the round, then play only reads it: the threads of a search
+ * can share it. At each simulated round play fills the action buffers of the caller (one action by ship) and gives
+ * them to the state with one handlePlayerActions, like the actions of the solution.
+ * The work of prepare is bounded by the time of the round, and play never computes a navigation table (MOVE).
+ */
+class OpponentModel {
+
+    enum Policy {
+        // No action: the ships keep their speed and their orientation
+        WAIT,
+        // Same as WAIT but a ship stopped by a collision goes faster again, up to its speed of the round
+        KEEP_SPEED,
+        // MOVE to the nearest barrel (navigation table), computed at each simulated round
+        NEAREST_BARREL,
+        // Best plan of a short random search of the ennemy (me waiting), computed once by round
+        SEARCH
+    }
+
+    public static final int PLAYER = 0;
+
+    // Model of the searches without opponent model
+    public static final OpponentModel WAIT_MODEL = new OpponentModel(Policy.WAIT);
+
+    private static final int NB_ACTIONS = 7;
+
+    private final Policy policy;
+    private final int searchEvaluations;
+
+    // Speed of each ship in the state of the round, by index of the ship in the state (KEEP_SPEED)
+    private final int[] roundSpeeds = new int[2 * Referee.MAX_SHIPS];
+
+    // Plan of SEARCH: action of the ship k at the round i in plan[i * planShips + k]
+    private int[] plan = new int[0];
+    private int planRounds;
+    private int planShips;
+    private boolean hasPlan;
+    private long planHash;
+
+    // Buffers of the search of the ennemy
+    private final FastRandom random;
+    private final GameState testState = new GameState();
+    private final byte[] actions = new byte[Referee.MAX_SHIPS];
+    private final int[] targets = new int[2 * Referee.MAX_SHIPS];
+    private final Evaluator evaluator = new ScoreEvaluator(PLAYER);
+    private int[] candidate = new int[0];
+
+    public OpponentModel(Policy policy) {
+        this(policy, 100);
+    }
+
+    /**
+     * @param searchEvaluations : nb of plans evaluated by round by SEARCH
+     */
+    public OpponentModel(Policy policy, int searchEvaluations) {
+        this(policy, searchEvaluations, FastRandom.create());
+    }
+
+    /**
+     * @param random : random numbers of SEARCH
+     */
+    public OpponentModel(Policy policy, int searchEvaluations, FastRandom random) {
+        this.policy = policy;
+        this.searchEvaluations = searchEvaluations;
+        this.random = random;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Prepare the model for the simulations of the round
+     * @param rootState : state of the round
+     * @param nbOfRounds : nb of rounds of the simulations
+     * @param turnBudget : time of the round, already started (the plans of SEARCH are evaluations of the round)
+     */
+    public void prepare(GameState rootState, int nbOfRounds, TurnBudget turnBudget) {
+        switch (policy) {
+            case KEEP_SPEED:
+                // A simulated state keeps the ships of the round in the same order (copyFrom)
+                for (int ship = 0; ship < rootState.getShipCount(); ship++) {
+                    roundSpeeds[ship] = rootState.getShipSpeed(ship);
+                }
+                break;
+            case NEAREST_BARREL:
+                // Tables of the barrels of the round not computed in the first round, while there is time
+                for (int i = 0; i < rootState.getBarrelCount() && System.nanoTime() < turnBudget.getDeadlineNanos(); i++) {
+                    NavigationTable.build(GameState.mapCell(rootState.getBarrelCell(i)));
+                }
+                break;
+            case SEARCH:
+                searchPlan(rootState, nbOfRounds, turnBudget);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Give the actions of the ennemy to the state, after state.prepare and before the actions of the solution
+     * @param round : round of the simulation (0 for the first round simulated)
+     * @param actions : buffer of the action codes of the caller
+     * @param targets : buffer of the targets of the caller
+     */
+    public void play(GameState state, int round, byte[] actions, int[] targets) {
+        if (policy == Policy.WAIT) {
+            return;
+        }
+
+        int k = 0;
+        for (int ship = 0; ship < state.getShipCount(); ship++) {
+            if (!state.isShipAlive(ship) || state.getShipOwner(ship) != PLAYER) {
+                continue;
+            }
+            switch (policy) {
+                case KEEP_SPEED:
+                    actions[k] = state.getShipSpeed(ship) < roundSpeeds[ship] ? Referee.ACTION_FASTER : Referee.ACTION_WAIT;
+                    break;
+                case NEAREST_BARREL:
+                    int barrel = nearestBarrel(state, ship);
+                    // A table is never computed during a simulation (about 1.5 ms)
+                    if (barrel == GameState.NO_CELL || !NavigationTable.isBuilt(GameState.mapCell(barrel))) {
+                        actions[k] = Referee.ACTION_WAIT;
+                    } else {
+                        actions[k] = Referee.ACTION_MOVE;
+                        targets[2 * k] = GameState.getX(barrel);
+                        targets[2 * k + 1] = GameState.getY(barrel);
+                    }
+                    break;
+                default:
+                    actions[k] = round < planRounds && k < planShips ? (byte) plan[round * planShips + k] : Referee.ACTION_WAIT;
+                    setFireTarget(state, k, actions, targets);
+                    break;
+            }
+            k++;
+        }
+
+        state.handlePlayerActions(PLAYER, actions, targets);
+    }
+
+    /**
+     * @return the cell of the barrel nearest to the center of the ship or NO_CELL
+     */
+    private static int nearestBarrel(GameState state, int ship) {
+        int nearest = GameState.NO_CELL;
+        int minimalDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < state.getBarrelCount(); i++) {
+            int distance = GameState.distance(state.getShipCell(ship), state.getBarrelCell(i));
+            if (distance < minimalDistance) {
+                minimalDistance = distance;
+                nearest = state.getBarrelCell(i);
+            }
+        }
+        return nearest;
+    }
+
+    private static void setFireTarget(GameState state, int k, byte[] actions, int[] targets) {
+        if (actions[k] == Referee.ACTION_FIRE) {
+            int cell = state.getNextNearestEnnemyPosition(PLAYER, k);
+            targets[2 * k] = GameState.getX(cell);
+            targets[2 * k + 1] = GameState.getY(cell);
+        }
+    }
+
+    /**
+     * Random search of the plan of the ennemy, started from the plan of the last round shifted by one round.
+     * Nothing is done if the plan of this state is already computed. The search stops at the end of the time of the
+     * round, after one plan at least.
+     */
+    private void searchPlan(GameState rootState, int nbOfRounds, TurnBudget turnBudget) {
+        if (hasPlan && planHash == rootState.getHash() && planRounds == nbOfRounds) {
+            return;
+        }
+
+        int ships = rootState.getNumberOfShipsAlive(PLAYER);
+        int length = nbOfRounds * ships;
+        if (plan.length != length) {
+            plan = new int[length];
+            candidate = new int[length];
+            hasPlan = false;
+        } else if (hasPlan) {
+            System.arraycopy(plan, ships, plan, 0, length - ships);
+            for (int i = length - ships; i < length; i++) {
+                plan[i] = random.nextInt(NB_ACTIONS);
+            }
+        }
+
+        evaluator.prepare(rootState, nbOfRounds);
+        int bestScore = -Integer.MAX_VALUE;
+        for (int e = 0; (e < searchEvaluations && turnBudget.hasTime()) || !hasPlan; e++) {
+            if (e == 0 && hasPlan) {
+                System.arraycopy(plan, 0, candidate, 0, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    candidate[i] = random.nextInt(NB_ACTIONS);
+                }
+            }
+
+            int score = evaluatePlan(rootState, nbOfRounds, ships, candidate);
+            if (score > bestScore) {
+                bestScore = score;
+                System.arraycopy(candidate, 0, plan, 0, length);
+                hasPlan = true;
+            }
+        }
+
+        planRounds = nbOfRounds;
+        planShips = ships;
+        planHash = rootState.getHash();
+    }
+
+    /**
+     * Simulate the plan of the ennemy with my ships waiting
+     * @param ships : nb of ships of the ennemy in the state of the round (genes of a round)
+     * @return the score of the plan for the ennemy
+     */
+    private int evaluatePlan(GameState rootState, int nbOfRounds, int ships, int[] solution) {
+        testState.copyFrom(rootState);
+
+        int nbOfShips = ships;
+        for (int i = 0; i < nbOfRounds; i++) {
+            testState.prepare();
+            for (int k = 0; k < nbOfShips; k++) {
+                actions[k] = (byte) solution[i * ships + k];
+                setFireTarget(testState, k, actions, targets);
+            }
+            testState.handlePlayerActions(PLAYER, actions, targets);
+
+            if (testState.update()) {
+                break;
+            }
+            nbOfShips = testState.getNumberOfShipsAlive(PLAYER);
+        }
+
+        return evaluator.evaluate(rootState, testState);
+    }
+}
@@ -0,0 +1,234 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Random search of Player (like generateRandomSolutionsAndPlay) with the evaluations shared between threads.
+ * Each worker has its own GameState and action buffers and takes the next batch of candidates from a shared counter.
+ * A candidate is only known by its index: its genes come from a FastRandom seeded with (seed, round, index), so the best
+ * one is kept in an AtomicLong (score and index) and its genes are generated again at the end.
+ * With a fixed seed and nb of threads the result only depends on the candidates evaluated: the same score on two
+ * candidates is won by the lower index, whatever the thread that evaluated it.
+ */
+class ParallelSearch {
+
+    private static final int BATCH_SIZE = 16;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    private final int nbThreads;
+    private final long seed;
+    private final Worker[] workers;
+    private final GameState rootState = new GameState();
+    // Prepared by the calling thread, only read by the workers
+    private OpponentModel opponentModel = new OpponentModel(OpponentModel.Policy.WAIT);
+    private Evaluator evaluator = new ScoreEvaluator();
+    private final AtomicInteger nextBatch = new AtomicInteger();
+    // score in the high bits, (INDEX_MASK - index) in the low bits : the max is the best score with the lower index
+    private final AtomicLong best = new AtomicLong();
+    private final List<Future<?>> futures = new ArrayList<>();
+    private ExecutorService executor;
+
+    // Parameters of the round, read by the workers
+    private volatile int round;
+    private int nbRoundGenerated;
+    private int myShipCount;
+    private int maxCandidates;
+    private long deadlineNanos;
+
+    // Best solution of the last round, shifted, evaluated as the candidate 0 of the next round
+    private int[] bestSolution;
+    private boolean hasBestSolution;
+
+    /**
+     * @param nbThreads : nb of threads evaluating the candidates (the calling thread is one of them)
+     * @param seed : seed of the candidates, the same seed gives the same candidates
+     */
+    public ParallelSearch(int nbThreads, long seed) {
+        this.nbThreads = Math.max(1, nbThreads);
+        this.seed = seed;
+        this.workers = new Worker[this.nbThreads];
+        for (int i = 0; i < this.nbThreads; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    /**
+     * @param opponentModel : actions of the ennemy in the simulations, prepared at each search
+     */
+    public void setOpponentModel(OpponentModel opponentModel) {
+        this.opponentModel = opponentModel;
+    }
+
+    /**
+     * @param evaluator : score of the simulated states, prepared at each search
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Evaluate random solutions on all the threads until the end of the time of the round and print the first actions of the best
+     * @param turnBudget : time of the round, already started
+     * @param nbSolutionsGenerated : max nb of solutions evaluated
+     * @param nbRoundGenerated : nb of rounds of a solution
+     * @param myShipCount : nb of ships
+     */
+    public void play(TurnBudget turnBudget, int nbSolutionsGenerated, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+
+        ref.saveState(rootState);
+        opponentModel.prepare(rootState, nbRoundGenerated, turnBudget);
+        evaluator.prepare(rootState, nbRoundGenerated);
+
+        int genomeLength = nbRoundGenerated * myShipCount;
+        if (bestSolution == null || bestSolution.length != genomeLength) {
+            bestSolution = new int[genomeLength];
+            hasBestSolution = false;
+        }
+        for (Worker worker : workers) {
+            worker.init(genomeLength);
+        }
+
+        this.nbRoundGenerated = nbRoundGenerated;
+        this.myShipCount = myShipCount;
+        this.maxCandidates = nbSolutionsGenerated;
+        this.deadlineNanos = turnBudget.getDeadlineNanos();
+        nextBatch.set(0);
+        best.set(Long.MIN_VALUE);
+        // Volatile write last: the parameters above are visible to the workers
+        this.round = round;
+
+        startExecutor();
+        futures.clear();
+        for (int i = 1; i < nbThreads; i++) {
+            futures.add(executor.submit(workers[i]));
+        }
+        // At least one batch is evaluated by this thread to always have an answer
+        workers[0].evaluateBatches(true);
+        waitWorkers();
+
+        int evaluated = 0;
+        for (Worker worker : workers) {
+            evaluated += worker.evaluated;
+        }
+        turnBudget.addEvaluations(evaluated);
+
+        long packedBest = best.get();
+        int bestScore = (int) (packedBest >> 32);
+        int bestIndex = (int) (INDEX_MASK - (packedBest & INDEX_MASK));
+        fillCandidate(bestIndex, workers[0].random, workers[0].solution);
+        System.arraycopy(workers[0].solution, 0, bestSolution, 0, genomeLength);
+
+        System.err.println("Number of solutions evaluated: " + evaluated + " threads: " + nbThreads);
+        Player.displayFirstAction(bestSolution, bestScore, myShipCount, ref);
+
+        // Next round starts one round later in the solution (last round from the seed of the search)
+        System.arraycopy(bestSolution, myShipCount, bestSolution, 0, genomeLength - myShipCount);
+        fillCandidate(-1, workers[0].random, workers[0].solution);
+        System.arraycopy(workers[0].solution, 0, bestSolution, genomeLength - myShipCount, myShipCount);
+        hasBestSolution = true;
+    }
+
+    private void startExecutor() {
+        if (executor != null || nbThreads == 1) {
+            return;
+        }
+        executor = Executors.newFixedThreadPool(nbThreads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void waitWorkers() {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Genes of the candidate of the round, the candidate 0 is the best solution of the last round when there is one
+     * @param index : index of the candidate in the round
+     * @param random : FastRandom of the thread, seeded again for the candidate
+     * @param solution : filled with the genes
+     */
+    private void fillCandidate(int index, FastRandom random, int[] solution) {
+        if (index == 0 && hasBestSolution) {
+            System.arraycopy(bestSolution, 0, solution, 0, solution.length);
+            return;
+        }
+        random.setSeed(seed ^ ((long) round << 32) ^ index * 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < solution.length; i++) {
+            solution[i] = random.nextInt(7);
+        }
+    }
+
+    private void offer(int score, int index) {
+        long packed = ((long) score << 32) | (INDEX_MASK - index);
+        long current = best.get();
+        while (packed > current && !best.compareAndSet(current, packed)) {
+            current = best.get();
+        }
+    }
+
+    /**
+     * Scratch state of a thread
+     */
+    private class Worker implements Runnable {
+
+        private final GameState testState = new GameState();
+        private final byte[] actions = new byte[Referee.MAX_SHIPS];
+        private final int[] targets = new int[2 * Referee.MAX_SHIPS];
+        private final FastRandom random = new FastRandom(0);
+        private int[] solution = new int[0];
+        private int evaluated;
+
+        void init(int genomeLength) {
+            if (solution.length != genomeLength) {
+                solution = new int[genomeLength];
+            }
+            evaluated = 0;
+        }
+
+        @Override
+        public void run() {
+            evaluateBatches(false);
+        }
+
+        /**
+         * Evaluate batches of candidates until the last candidate or the end of the round
+         * @param firstBatch : true to evaluate the first batch taken even if the time is over
+         */
+        void evaluateBatches(boolean firstBatch) {
+            int currentRound = round;
+            int batch;
+            while ((batch = nextBatch.getAndIncrement()) * BATCH_SIZE < maxCandidates) {
+                if (!firstBatch && System.nanoTime() >= deadlineNanos) {
+                    break;
+                }
+                firstBatch = false;
+
+                int end = Math.min(maxCandidates, (batch + 1) * BATCH_SIZE);
+                for (int index = batch * BATCH_SIZE; index < end; index++) {
+                    fillCandidate(index, random, solution);
+                    int score = Player.evaluateSolution(currentRound, nbRoundGenerated, myShipCount, solution, 0, rootState, testState,
+                            actions, targets, opponentModel, evaluator);
+                    offer(score, index);
+                    evaluated++;
+                }
+            }
+        }
+    }
+}
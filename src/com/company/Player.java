@@ -3,8 +3,6 @@ package com.company;
 /**
  * Created by Nicolas on 14/04/2017.
  */
-import com.sun.org.apache.regexp.internal.RE;
-
 import java.util.*;
 import java.io.*;
 import java.math.*;
@@ -15,10 +13,49 @@ import java.math.*;
  **/
 class Player {
 
-    public static Random rand = new Random();
+    // State of the current round, saved once and restored before each simulation
+    private static Referee.Snapshot roundSnapshot = new Referee.Snapshot();
+    private static Referee simulationRef = new Referee();
+    private static byte[] simulationActions = new byte[Referee.MAX_SHIPS];
+    private static int[] simulationTargets = new int[2 * Referee.MAX_SHIPS];
+
+    static {
+        // Nothing of the simulations is displayed
+        simulationRef.setLeanSimulation(true);
+    }
+
+    // Best solution of the last round, already shifted for the current round (null if none)
+    private static int[] previousBestSolution = null;
+
+    // Time report of each round on the error output
+    private static final boolean DEBUG = false;
+
+    // 45 ms of the 50 ms of a round for the search, the first round has 1 s
+    private static TurnBudget turnBudget = new TurnBudget(45, 900);
+
+    // Scores of the states already evaluated, shared by all the searches
+    private static TranspositionTable transpositionTable = new TranspositionTable(16);
+
+    // Random search by batches sharing the simulation of their first rounds
+    private static PrefixEvaluator prefixEvaluator = new PrefixEvaluator();
+    private static GameState rootState = new GameState();
+    private static OpponentModel opponentModel = new OpponentModel(OpponentModel.Policy.WAIT);
+    private static Evaluator evaluator = new ScoreEvaluator();
+    private static int[] batchSolutions = new int[0];
+    private static int[] batchScores = new int[0];
+
+    private static GeneticAlgorithm geneticAlgorithm = new GeneticAlgorithm(20, 3);
+
+    // Created by getMonteCarloTreeSearch, only when it is used (its pool of nodes is big)
+    private static MonteCarloTreeSearch monteCarloTreeSearch;
+
+    // Random search on all the cores (offline runs), the threads are only started by the first play.
+    // Its seed comes from the global seed of FastRandom (property random.seed)
+    private static ParallelSearch parallelSearch = new ParallelSearch(Runtime.getRuntime().availableProcessors(),
+            FastRandom.create().nextLong());
 
     public static void main(String args[]) {
-        Scanner in = new Scanner(System.in);
+        InputReader in = new InputReader(System.in);
 
 
         //-------------------------------TEST----------------------
@@ -45,119 +82,148 @@ class Player {
         while (true) {
 
 
-            long startTime = System.currentTimeMillis();
-
-            players.get(0).clearShip();
-            players.get(1).clearShip();
-            //List<Referee.Entity> myShips = new ArrayList<>();
-            //List<Referee.Entity> ennemiesShips = new ArrayList<>();
             List<Referee.Entity> rumBarrels = new ArrayList<>();
-            List<Referee.Entity> mines = new ArrayList<>();
-            List<Referee.Entity> cannonballs = new ArrayList<>();
-
-            int myShipCount = in.nextInt(); // the number of remaining ships
-            int entityCount = in.nextInt(); // the number of entities (e.g. ships, mines or cannonballs)
-
-            for (int i = 0; i < entityCount; i++) {
-                int entityId = in.nextInt();
-                String entityType = in.next();
-                int x = in.nextInt();
-                int y = in.nextInt();
-                int arg1 = in.nextInt(); //orientation (0,5)
-                int arg2 = in.nextInt(); //vitesse (0,1,2)
-                int arg3 = in.nextInt(); //niveau de stock de rhum
-                int arg4 = in.nextInt(); //1 si le bateau vous appartient, 0 sinon
-
-                switch (entityType) {
-                    case "SHIP":
-                        Referee.Ship ship = new Referee.Ship(entityId, x,y,arg1, arg2, arg3, arg4);
-                        ship.setSpeed(arg2);
-                        ship.setHealth(arg3);
-                        players.get(arg4).addShip(ship);
-
-
-                        break;
-                    case "BARREL":
-                        Referee.RumBarrel rumBarrel = new Referee.RumBarrel(x,y,15);
-                        rumBarrels.add(rumBarrel);
-                        break;
-                    case"MINE":
-                        Referee.Mine mine = new Referee.Mine(x, y);
-                        System.err.println("MINE " + x +" " + y);
-                        mines.add(mine);
-                        break;
-                    case "CANNONBALL":
-                        //Change cannonball method
-                        Referee.Cannonball cannonball = new Referee.Cannonball(0,0,0,0,0,1);
-                        cannonballs.add(cannonball);
-                        break;
-                }
+            int myShipCount = readRound(in, ref, players, rumBarrels, turnBudget, round);
+
+            String[] outputs = getNearestBarrelOutputs(players, rumBarrels, myShipCount, round);
+
+            /*
+            ref.handlePlayerOutput(1,round,1,outputs);
+            ref.updateGame(round);
 
+            for (int i = 0; i < myShipCount; i++) {
+                System.out.println(outputs[i]);
             }
+*/
 
+            //String[] finalInput = ref.getInputForPlayer(round,1);
+            //displayStringArray(finalInput);
 
-            ref.updateReferee2(players, mines, rumBarrels, cannonballs);
-            ref.prepare(round);
+            //generateRandomSolutionsAndPlay(turnBudget, 100000,5,myShipCount,ref,round);
 
+            geneticAlgorithm.play(turnBudget, 5, myShipCount, ref, round);
 
-            String[] outputs = new String[myShipCount];
+            //hillClimbing(turnBudget, 5, myShipCount, ref, round);
 
-            for (int i = 0; i < myShipCount; i++) {
+            //generateRandomSolutionsByBatch(turnBudget, 100000, 64, 5, myShipCount, ref);
 
+            //getMonteCarloTreeSearch().play(turnBudget, 5, myShipCount, ref, round);
 
-                List<Referee.Ship> ennemiesShips = players.get(0).getShips();
-                List<Referee.Ship> myShips = players.get(1).getShips();
+            //parallelSearch.play(turnBudget, 100000, 5, myShipCount, ref, round);
 
-                // Write an action using System.out.println()
-                // To debug: System.err.println("Debug messages...");
+            if (DEBUG) {
+                System.err.println(turnBudget.report());
+            }
 
-                if(round % 4 == 0) {
-                    //Fire the ennemie 1 on 4 tours
-                    outputs[i] = "FIRE " + ennemiesShips.get(0).toPositionString();
+            round++;
 
-                } else {
 
-                    Referee.Entity nearestEntity = myShips.get(i).getNearestEntity(rumBarrels);
-                    if(nearestEntity!=null) {
-                        outputs[i] = "MOVE " + nearestEntity.toPositionString(); // Any valid action, such as "WAIT" or "MOVE x y"
-                    } else {
-                        Random rand = new Random();
-                        int xRand = Math.abs(rand.nextInt())%Referee.MAP_WIDTH;
-                        int yRand = Math.abs(rand.nextInt())%Referee.MAP_HEIGHT;
-                        outputs[i] = "MOVE " + xRand + " " + yRand; // Any valid action, such as "WAIT" or "MOVE x y"
-                    }
-                }
+            //String[] myInput = ref.getInputForPlayer(round,1);
 
 
-            }
+        }
+    }
 
-            /*
-            try {
-                ref.handlePlayerOutput(1,round,1,outputs);
-                ref.updateGame(round);
-            } catch (Exception e) {
-                e.printStackTrace();
+    /**
+     * Read the entities of a round and put them in the model referee (my ships are the ships of the player 1)
+     * @param players : the two players of ref, their ships are replaced by the ships of the round
+     * @param rumBarrels : filled with the barrels of the round
+     * @param turnBudget : started as soon as the first number of the round is read
+     * @return my number of ships
+     */
+    public static int readRound(InputReader in, Referee ref, List<Referee.Player> players, List<Referee.Entity> rumBarrels,
+                                TurnBudget turnBudget, int round) {
+
+        players.get(0).clearShip();
+        players.get(1).clearShip();
+        List<Referee.Entity> mines = new ArrayList<>();
+        List<Referee.Entity> cannonballs = new ArrayList<>();
+
+        int myShipCount = in.nextInt(); // the number of remaining ships
+        turnBudget.start(round == 1);
+        int entityCount = in.nextInt(); // the number of entities (e.g. ships, mines or cannonballs)
+
+        for (int i = 0; i < entityCount; i++) {
+            int entityId = in.nextInt();
+            int entityType = in.nextEntityType();
+            int x = in.nextInt();
+            int y = in.nextInt();
+            int arg1 = in.nextInt(); //orientation (0,5)
+            int arg2 = in.nextInt(); //vitesse (0,1,2)
+            int arg3 = in.nextInt(); //niveau de stock de rhum
+            int arg4 = in.nextInt(); //1 si le bateau vous appartient, 0 sinon
+
+            switch (entityType) {
+                case InputReader.ENTITY_SHIP:
+                    Referee.Ship ship = new Referee.Ship(entityId, x,y,arg1, arg2, arg3, arg4);
+                    ship.setSpeed(arg2);
+                    ship.setHealth(arg3);
+                    players.get(arg4).addShip(ship);
+                    break;
+                case InputReader.ENTITY_BARREL:
+                    Referee.RumBarrel rumBarrel = new Referee.RumBarrel(x,y,15);
+                    rumBarrels.add(rumBarrel);
+                    break;
+                case InputReader.ENTITY_MINE:
+                    Referee.Mine mine = new Referee.Mine(x, y);
+                    mines.add(mine);
+                    break;
+                case InputReader.ENTITY_CANNONBALL:
+                    // arg1: ship that fired, arg2: turns before impact (the origin is not given)
+                    Referee.Cannonball cannonball = new Referee.Cannonball(x,y,arg1,x,y,arg2);
+                    cannonballs.add(cannonball);
+                    break;
             }
+        }
 
-            for (int i = 0; i < myShipCount; i++) {
-                System.out.println(outputs[i]);
-            }
-*/
+        ref.updateReferee2(players, mines, rumBarrels, cannonballs);
+        ref.prepare(round);
 
-            //String[] finalInput = ref.getInputForPlayer(round,1);
-            //displayStringArray(finalInput);
+        return myShipCount;
+    }
 
-            generateRandomSolutionsAndPlay(startTime, 100000,5,myShipCount,ref,round);
+    /**
+     * Simple strategy without search: fire the first ennemy 1 round on 4, else move to the nearest barrel
+     * @param players : the two players of the round, my ships are the ships of the player 1
+     * @param rumBarrels : barrels of the round
+     * @return the outputs of my ships
+     */
+    public static String[] getNearestBarrelOutputs(List<Referee.Player> players, List<Referee.Entity> rumBarrels, int myShipCount, int round) {
+        String[] outputs = new String[myShipCount];
 
-            //hillClimbing(startTime, 5, myShipCount, ref, round);
+        List<Referee.Ship> ennemiesShips = players.get(0).getShips();
+        List<Referee.Ship> myShips = players.get(1).getShips();
 
-            round++;
+        for (int i = 0; i < myShipCount; i++) {
 
+            if(round % 4 == 0) {
+                //Fire the ennemie 1 on 4 tours
+                outputs[i] = "FIRE " + ennemiesShips.get(0).toPositionString();
 
-            //String[] myInput = ref.getInputForPlayer(round,1);
+            } else {
 
+                Referee.Entity nearestEntity = myShips.get(i).getNearestEntity(rumBarrels);
+                if(nearestEntity!=null) {
+                    outputs[i] = "MOVE " + nearestEntity.toPositionString(); // Any valid action, such as "WAIT" or "MOVE x y"
+                } else {
+                    int xRand = FastRandom.current().nextInt(Referee.MAP_WIDTH);
+                    int yRand = FastRandom.current().nextInt(Referee.MAP_HEIGHT);
+                    outputs[i] = "MOVE " + xRand + " " + yRand; // Any valid action, such as "WAIT" or "MOVE x y"
+                }
+            }
+        }
 
+        return outputs;
+    }
+
+    /**
+     * @return the tree search of Player, created at the first call
+     */
+    public static MonteCarloTreeSearch getMonteCarloTreeSearch() {
+        if (monteCarloTreeSearch == null) {
+            monteCarloTreeSearch = new MonteCarloTreeSearch(200000, 1.4);
         }
+        return monteCarloTreeSearch;
     }
 
     public static void displayStringArray(String[] array) {
@@ -175,7 +241,7 @@ class Player {
      */
     public static int[] generateRandomSolution(int nbOfRounds, int nbOfShips) {
         int[] solution = new int[nbOfRounds*nbOfShips];
-        Random rand = new Random();
+        FastRandom rand = FastRandom.current();
 
         for(int i = 0; i<nbOfRounds*nbOfShips; i++) {
             solution[i] = rand.nextInt(7);
@@ -192,32 +258,40 @@ class Player {
         System.err.println("");
     }
 
-    public static int evaluateSolution(int currentRound, int nbOfRounds, int nbOfShips, int[] mySolution, Referee ref) {
+    /**
+     * Simulate the solution from the saved state of ref and evaluate it (Referee.evaluateScore, without the
+     * transposition table: the Referee has no hash and the score is cheap next to the simulation)
+     * @param refSnapshot : state of ref saved with ref.saveState
+     * @param testRef : scratch referee reset with refSnapshot (no copy of ref)
+     * @return the score
+     */
+    public static int evaluateSolution(int currentRound, int nbOfRounds, int nbOfShips, int[] mySolution, Referee ref,
+                                       Referee.Snapshot refSnapshot, Referee testRef) {
+        return evaluateSolution(currentRound, nbOfRounds, nbOfShips, mySolution, 0, ref, refSnapshot, testRef);
+    }
 
-        //displaySolution(mySolution);
+    /**
+     * Same as evaluateSolution for a solution stored at offset in a bigger array (population of the genetic algorithm)
+     */
+    public static int evaluateSolution(int currentRound, int nbOfRounds, int nbOfShips, int[] mySolution, int offset, Referee ref,
+                                       Referee.Snapshot refSnapshot, Referee testRef) {
 
-        //Make a copy of ref
-        Referee testRef = new Referee(ref);
+        //displaySolution(mySolution);
 
-        String[] beginInput = ref.getInputForPlayer(currentRound,1);
-        //displayStringArray(beginInput);
+        testRef.restoreState(refSnapshot);
 
         for(int i = 0; i<nbOfRounds; i++) {
             testRef.prepare(currentRound);
-            String[] currentOutputs = getOutputOfSolution(mySolution,i,nbOfShips,testRef);
+            getActionsOfSolution(mySolution,offset,i,nbOfShips,testRef,simulationActions,simulationTargets);
 
-            /*for(int k=0; k<nbOfShips; k++) {
-                System.err.println("Move(" + k + ") = " + currentOutputs[k]);
-            }*/
-
-            try {
-                testRef.handlePlayerOutput(1,currentRound,1,currentOutputs);
-                testRef.updateGame(currentRound);
-                nbOfShips = testRef.getNumberOfShipsAlive(1);
-            } catch (Exception e) {
-                //e.printStackTrace();
+            testRef.handlePlayerActions(1,simulationActions,simulationTargets);
+            Referee.Outcome outcome = testRef.updateGame(currentRound);
+            if(outcome == Referee.Outcome.GAME_OVER) {
                 break;
             }
+            if(outcome == Referee.Outcome.SHIP_LOST) {
+                nbOfShips = testRef.getNumberOfShipsAlive(1);
+            }
             currentRound++;
 
 
@@ -232,23 +306,83 @@ class Player {
         return score;
     }
 
-    public static void generateRandomSolutionsAndPlay(long startTime,int nbSolutionsGenerated, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+    /**
+     * Same as evaluateSolution on the compact GameState instead of a Referee, with the actions of the ennemy given by an
+     * opponent model and the score of an evaluator
+     * @param rootState : state of the round
+     * @param testState : scratch state reset with rootState
+     * @param actions : buffer of the action codes (one for each ship, one buffer for each thread)
+     * @param targets : buffer of the targets (two for each ship)
+     * @param opponentModel : model prepared with rootState
+     * @param evaluator : evaluator prepared with rootState
+     * @return the score
+     */
+    public static int evaluateSolution(int currentRound, int nbOfRounds, int nbOfShips, int[] mySolution, int offset, GameState rootState,
+                                       GameState testState, byte[] actions, int[] targets, OpponentModel opponentModel, Evaluator evaluator) {
+        simulate(currentRound, nbOfRounds, nbOfShips, mySolution, offset, rootState, testState, actions, targets, opponentModel);
+        return evaluateScore(rootState, testState, evaluator);
+    }
+
+    /**
+     * Play the rounds of the solution from rootState in testState
+     */
+    private static void simulate(int currentRound, int nbOfRounds, int nbOfShips, int[] mySolution, int offset, GameState rootState,
+                                 GameState testState, byte[] actions, int[] targets, OpponentModel opponentModel) {
+
+        testState.copyFrom(rootState);
+
+        for(int i = 0; i<nbOfRounds; i++) {
+            testState.prepare();
+            opponentModel.play(testState, i, actions, targets);
+            getActionsOfSolution(mySolution,offset,i,nbOfShips,testState,actions,targets);
+            testState.handlePlayerActions(1,actions,targets);
 
-        // To avoid problem in the first round (realy long time to get here)
-        if(System.currentTimeMillis()-startTime > 45) {
-            startTime = System.currentTimeMillis();
+            if(testState.update()) {
+                break;
+            }
+            nbOfShips = testState.getNumberOfShipsAlive(1);
+            currentRound++;
         }
+    }
+
+    /**
+     * Score of the state after the simulation, from the transposition table when it was already evaluated
+     * @param rootState : state of the round
+     * @param state : state after the simulation
+     * @param evaluator : evaluator prepared with rootState
+     */
+    public static int evaluateScore(GameState rootState, GameState state, Evaluator evaluator) {
+        long key = TranspositionTable.key(rootState, state, evaluator);
+        int score = transpositionTable.get(key);
+        if (score == TranspositionTable.NO_SCORE) {
+            score = evaluator.evaluate(rootState, state);
+            transpositionTable.put(key, score);
+        }
+        return score;
+    }
+
+    public static void generateRandomSolutionsAndPlay(TurnBudget turnBudget,int nbSolutionsGenerated, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
 
         int bestScore = -Integer.MAX_VALUE;
         int[] bestSolution = null;
 
         round = 0;
 
+        ref.saveState(roundSnapshot);
+
         int i=0;
-        while(i<nbSolutionsGenerated && System.currentTimeMillis()-startTime < 45){
+
+        // Start with the plan of the last round
+        if(previousBestSolution != null && previousBestSolution.length == nbRoundGenerated*myShipCount) {
+            bestSolution = previousBestSolution;
+            bestScore = evaluateSolution(round,nbRoundGenerated,myShipCount,bestSolution,ref,roundSnapshot,simulationRef);
+            i++;
+        }
+
+        while(i<nbSolutionsGenerated && turnBudget.hasTime()){
             //Generate random solution and test it
             int[] solution = generateRandomSolution(nbRoundGenerated,myShipCount);
-            int score = evaluateSolution(round,nbRoundGenerated,myShipCount,solution,ref);
+            int score = evaluateSolution(round,nbRoundGenerated,myShipCount,solution,ref,roundSnapshot,simulationRef);
             if(score > bestScore) {
                 bestScore = score;
                 bestSolution = solution;
@@ -260,7 +394,66 @@ class Player {
         System.err.println("Number of solutions evaluated: " + i);
         displayFirstAction(bestSolution, bestScore, myShipCount,ref);
 
+        keepBestSolution(bestSolution, myShipCount);
+    }
+
+    /**
+     * Same as generateRandomSolutionsAndPlay but the solutions are evaluated by batches with the PrefixEvaluator
+     * (the first rounds shared by solutions of the batch are simulated once)
+     * @param batchSize : nb of solutions of a batch
+     */
+    public static void generateRandomSolutionsByBatch(TurnBudget turnBudget, int nbSolutionsGenerated, int batchSize, int nbRoundGenerated,
+                                                      int myShipCount, Referee ref) {
+
+        int genomeLength = nbRoundGenerated * myShipCount;
+        if(batchSolutions.length != batchSize * genomeLength) {
+            batchSolutions = new int[batchSize * genomeLength];
+            batchScores = new int[batchSize];
+        }
+
+        ref.saveState(rootState);
+        opponentModel.prepare(rootState, nbRoundGenerated, turnBudget);
+        evaluator.prepare(rootState, nbRoundGenerated);
 
+        int bestScore = -Integer.MAX_VALUE;
+        int[] bestSolution = new int[genomeLength];
+        int roundsBefore = prefixEvaluator.getRoundsSimulated();
+
+        int i = 0;
+        while(i<nbSolutionsGenerated && (i == 0 || turnBudget.hasTime())) {
+            int count = Math.min(batchSize, nbSolutionsGenerated - i);
+            int first = 0;
+
+            // Start with the plan of the last round
+            if(i == 0 && previousBestSolution != null && previousBestSolution.length == genomeLength) {
+                System.arraycopy(previousBestSolution, 0, batchSolutions, 0, genomeLength);
+                first = genomeLength;
+            }
+            FastRandom rand = FastRandom.current();
+            for(int j = first; j<count * genomeLength; j++) {
+                batchSolutions[j] = rand.nextInt(7);
+            }
+
+            prefixEvaluator.evaluate(nbRoundGenerated, myShipCount, batchSolutions, count, rootState, opponentModel, evaluator,
+                    batchScores);
+
+            for(int k = 0; k<count; k++) {
+                if(batchScores[k] > bestScore) {
+                    bestScore = batchScores[k];
+                    System.arraycopy(batchSolutions, k * genomeLength, bestSolution, 0, genomeLength);
+                }
+            }
+
+            // hasTime counts one evaluation for the batch
+            turnBudget.addEvaluations(i == 0 ? count : count - 1);
+            i += count;
+        }
+
+        System.err.println("Number of solutions evaluated: " + i + " rounds simulated: "
+                + (prefixEvaluator.getRoundsSimulated() - roundsBefore) + " / " + i * nbRoundGenerated);
+        displayFirstAction(bestSolution, bestScore, myShipCount,ref);
+
+        keepBestSolution(bestSolution, myShipCount);
     }
 
     public static void displayFirstAction(int[] bestSolution, int bestScore, int myShipCount, Referee ref) {
@@ -273,10 +466,11 @@ class Player {
         } else {
             System.err.println("NO SOLUTIONS FOUND");
 
+            FastRandom rand = FastRandom.current();
             for(int i = 0; i<myShipCount;i++) {
 
-                int xRand = Math.abs(rand.nextInt())%Referee.MAP_WIDTH;
-                int yRand = Math.abs(rand.nextInt())%Referee.MAP_HEIGHT;
+                int xRand = rand.nextInt(Referee.MAP_WIDTH);
+                int yRand = rand.nextInt(Referee.MAP_HEIGHT);
                 System.out.println("MOVE " + xRand + " " + yRand); // Any valid action, such as "WAIT" or "MOVE x y"
             }
 
@@ -289,32 +483,57 @@ class Player {
      * @return
      */
     public static int[] mutation(int[] solution) {
-
         int[] solutionCopy = new int[solution.length];
         System.arraycopy( solution, 0, solutionCopy, 0, solution.length );
-        int mutationPosition = rand.nextInt(solutionCopy.length);
+        mutation(solutionCopy, 0, solutionCopy.length);
+        return solutionCopy;
+    }
+
+    /**
+     * Same as mutation but change the solution stored at offset in place
+     * @param solutions : array containing the solution
+     * @param offset : index of the first gene of the solution
+     * @param length : number of genes of the solution
+     */
+    public static void mutation(int[] solutions, int offset, int length) {
+        mutation(solutions, offset, length, FastRandom.current());
+    }
+
+    /**
+     * Same as mutation in place with the random numbers of a search
+     * @param rand : FastRandom of the search
+     */
+    public static void mutation(int[] solutions, int offset, int length, FastRandom rand) {
+        int mutationPosition = offset + rand.nextInt(length);
 
         int newAction = rand.nextInt(7);
-        while(newAction == solutionCopy[mutationPosition]) {
+        while(newAction == solutions[mutationPosition]) {
             newAction = rand.nextInt(7);
         }
 
-        solutionCopy[mutationPosition] = newAction;
-        return solutionCopy;
+        solutions[mutationPosition] = newAction;
     }
 
-    public static void hillClimbing(long startTime, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
+    public static void hillClimbing(TurnBudget turnBudget, int nbRoundGenerated, int myShipCount, Referee ref, int round) {
 
 
-        int[] solution = generateRandomSolution(nbRoundGenerated,myShipCount);
-        int bestScore = evaluateSolution(round,nbRoundGenerated,myShipCount,solution,ref);
+        ref.saveState(roundSnapshot);
+
+        // Start with the plan of the last round
+        int[] solution;
+        if(previousBestSolution != null && previousBestSolution.length == nbRoundGenerated*myShipCount) {
+            solution = previousBestSolution;
+        } else {
+            solution = generateRandomSolution(nbRoundGenerated,myShipCount);
+        }
+        int bestScore = evaluateSolution(round,nbRoundGenerated,myShipCount,solution,ref,roundSnapshot,simulationRef);
 
         int i=0;
-        while(System.currentTimeMillis()-startTime < 45) {
+        while(turnBudget.hasTime()) {
 
             int[] newSolution = mutation(solution);
 
-            int score = evaluateSolution(round,nbRoundGenerated,myShipCount,newSolution,ref);
+            int score = evaluateSolution(round,nbRoundGenerated,myShipCount,newSolution,ref,roundSnapshot,simulationRef);
             if(score > bestScore) {
                 bestScore = score;
                 solution = newSolution;
@@ -324,6 +543,42 @@ class Player {
 
         System.err.println("Number of solutions evaluated: " + i);
         displayFirstAction(solution, bestScore, myShipCount,ref);
+
+        keepBestSolution(solution, myShipCount);
+    }
+
+    /**
+     * Keep the best solution of the round, shifted by one round, to start the search of the next round
+     * @param bestSolution : best solution of the round (can be null)
+     * @param nbOfShips : nb of ships
+     */
+    private static void keepBestSolution(int[] bestSolution, int nbOfShips) {
+        if(bestSolution == null) {
+            previousBestSolution = null;
+            return;
+        }
+        shiftSolution(bestSolution, nbOfShips);
+        previousBestSolution = bestSolution;
+    }
+
+    /**
+     * Shift the solution by one round (nbOfShips genes) and fill the last round with random genes
+     * @param solution : changed in place
+     * @param nbOfShips : nb of ships
+     */
+    public static void shiftSolution(int[] solution, int nbOfShips) {
+        shiftSolution(solution, nbOfShips, FastRandom.current());
+    }
+
+    /**
+     * Same as shiftSolution with the random numbers of a search
+     * @param rand : FastRandom of the search
+     */
+    public static void shiftSolution(int[] solution, int nbOfShips, FastRandom rand) {
+        System.arraycopy(solution, nbOfShips, solution, 0, solution.length - nbOfShips);
+        for(int i = solution.length - nbOfShips; i<solution.length; i++) {
+            solution[i] = rand.nextInt(7);
+        }
     }
 
     public static void displayOutputs(String[] outputs) {
@@ -334,6 +589,45 @@ class Player {
 
     }
 
+    /**
+     * Same as getOutputOfSolution but fill the action codes for handlePlayerActions (no string)
+     * @param offset : index of the first gene of the solution in the array
+     * @param actions : filled with one Referee.ACTION_* code for each ship
+     * @param targets : filled with the x, y of the FIRE targets
+     */
+    public static void getActionsOfSolution(int[] solution, int offset, int index, int nbShips, Referee ref, byte[] actions, int[] targets) {
+
+        for (int i = 0; i < nbShips; i++) {
+
+            int currentAction = solution[offset + index * nbShips + i];
+            actions[i] = (byte) currentAction;
+
+            if (currentAction == Referee.ACTION_FIRE) {
+                Referee.Coord coord = ref.getNextNearestEnnemyPosition(1, i);
+                targets[2 * i] = coord.getX();
+                targets[2 * i + 1] = coord.getY();
+            }
+        }
+    }
+
+    /**
+     * Same as getActionsOfSolution on the compact GameState
+     */
+    public static void getActionsOfSolution(int[] solution, int offset, int index, int nbShips, GameState state, byte[] actions, int[] targets) {
+
+        for (int i = 0; i < nbShips; i++) {
+
+            int currentAction = solution[offset + index * nbShips + i];
+            actions[i] = (byte) currentAction;
+
+            if (currentAction == Referee.ACTION_FIRE) {
+                int cell = state.getNextNearestEnnemyPosition(1, i);
+                targets[2 * i] = GameState.getX(cell);
+                targets[2 * i + 1] = GameState.getY(cell);
+            }
+        }
+    }
+
     public static String[] getOutputOfSolution(int[] solution, int index, int nbShips, Referee ref) {
         String[] outputs = new String[nbShips];
 
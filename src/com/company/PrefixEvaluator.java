@@ -0,0 +1,155 @@
+package com.company;
+
+/**
+ * Evaluation of a batch of solutions sharing their first rounds (same result as Player.evaluateSolution).
+ * The solutions are sorted by their genes, so the solutions with the same first rounds follow each other,
+ * and the state after each round of the last solution is kept: the next solution only simulates the rounds
+ * after the prefix it has in common with the last one.
+ * A round i only reads genes before (i+1)*nbShips (nbShips can only decrease), so the same first (i+1)*nbShips
+ * genes give the same state after the round i.
+ */
+class PrefixEvaluator {
+
+    // states[r] is the state after r rounds of the last solution evaluated, states[0] is not used (root)
+    private GameState[] states = new GameState[0];
+    private int[] shipsAfter = new int[0];
+    private final byte[] actions = new byte[Referee.MAX_SHIPS];
+    private final int[] targets = new int[2 * Referee.MAX_SHIPS];
+
+    private int[] order = new int[0];
+    private int[] sortBuffer = new int[0];
+
+    private int roundsSimulated;
+
+    /**
+     * Evaluate the solutions stored one after the other in solutions
+     * @param solutions : count solutions of genomeLength genes
+     * @param count : nb of solutions
+     * @param nbOfRounds : nb of rounds of a solution
+     * @param nbOfShips : nb of ships at the start
+     * @param rootState : state of the round
+     * @param opponentModel : actions of the ennemy, prepared with rootState
+     * @param evaluator : score of the states, prepared with rootState
+     * @param scores : filled with the score of each solution
+     */
+    public void evaluate(int nbOfRounds, int nbOfShips, int[] solutions, int count, GameState rootState, OpponentModel opponentModel,
+                         Evaluator evaluator, int[] scores) {
+        int genomeLength = nbOfRounds * nbOfShips;
+        init(nbOfRounds, count);
+
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        sort(solutions, genomeLength, 0, count);
+
+        // Rounds of the last solution that are in states, less than nbOfRounds if the game is over
+        int lastRound = 0;
+        boolean gameOver = false;
+        shipsAfter[0] = nbOfShips;
+
+        for (int k = 0; k < count; k++) {
+            int offset = order[k] * genomeLength;
+
+            int sharedRounds = 0;
+            if (k > 0) {
+                sharedRounds = commonPrefix(solutions, order[k - 1] * genomeLength, offset, genomeLength) / nbOfShips;
+            }
+
+            // Game over in the common prefix: same final state
+            if (!gameOver || sharedRounds < lastRound) {
+                int firstRound = Math.min(sharedRounds, lastRound);
+                lastRound = nbOfRounds;
+                gameOver = false;
+                for (int i = firstRound; i < nbOfRounds; i++) {
+                    GameState state = states[i + 1];
+                    state.copyFrom(i == 0 ? rootState : states[i]);
+                    state.prepare();
+                    opponentModel.play(state, i, actions, targets);
+                    Player.getActionsOfSolution(solutions, offset, i, shipsAfter[i], state, actions, targets);
+                    state.handlePlayerActions(1, actions, targets);
+                    roundsSimulated++;
+
+                    if (state.update()) {
+                        lastRound = i + 1;
+                        gameOver = true;
+                        break;
+                    }
+                    shipsAfter[i + 1] = state.getNumberOfShipsAlive(1);
+                }
+            }
+
+            scores[order[k]] = Player.evaluateScore(rootState, lastRound == 0 ? rootState : states[lastRound], evaluator);
+        }
+    }
+
+    /**
+     * @return nb of rounds simulated since the creation (to compare with nb of solutions * nb of rounds)
+     */
+    public int getRoundsSimulated() {
+        return roundsSimulated;
+    }
+
+    private void init(int nbOfRounds, int count) {
+        if (states.length < nbOfRounds + 1) {
+            GameState[] newStates = new GameState[nbOfRounds + 1];
+            System.arraycopy(states, 0, newStates, 0, states.length);
+            for (int i = states.length; i < newStates.length; i++) {
+                newStates[i] = new GameState();
+            }
+            states = newStates;
+            shipsAfter = new int[nbOfRounds + 1];
+        }
+        if (order.length < count) {
+            order = new int[count];
+            sortBuffer = new int[count];
+        }
+    }
+
+    private static int commonPrefix(int[] solutions, int offset1, int offset2, int length) {
+        int i = 0;
+        while (i < length && solutions[offset1 + i] == solutions[offset2 + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int compare(int[] solutions, int offset1, int offset2, int length) {
+        for (int i = 0; i < length; i++) {
+            int difference = solutions[offset1 + i] - solutions[offset2 + i];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Merge sort of order[from, to) by the genes of the solutions
+     */
+    private void sort(int[] solutions, int genomeLength, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(solutions, genomeLength, from, middle);
+        sort(solutions, genomeLength, middle, to);
+
+        int i = from;
+        int j = middle;
+        int k = from;
+        while (i < middle && j < to) {
+            if (compare(solutions, order[i] * genomeLength, order[j] * genomeLength, genomeLength) <= 0) {
+                sortBuffer[k++] = order[i++];
+            } else {
+                sortBuffer[k++] = order[j++];
+            }
+        }
+        while (i < middle) {
+            sortBuffer[k++] = order[i++];
+        }
+        while (j < to) {
+            sortBuffer[k++] = order[j++];
+        }
+        System.arraycopy(sortBuffer, from, order, from, to - from);
+    }
+}
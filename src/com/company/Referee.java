@@ -1,7 +1,5 @@
 package com.company;
 
-import com.sun.org.apache.regexp.internal.RE;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
@@ -11,13 +9,14 @@ import java.io.StringWriter;
 import java.sql.Ref;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 class Referee {
-    private static final int LEAGUE_LEVEL = 3;
+    static final int LEAGUE_LEVEL = 3;
 
     public static final int MAP_WIDTH = 23;
     public static final int MAP_HEIGHT = 21;
@@ -92,6 +91,16 @@ class Referee {
             Pattern.CASE_INSENSITIVE);
     private static final Pattern PLAYER_INPUT_MINE_PATTERN = Pattern.compile("MINE(?:\\s+(?<message>.+))?", Pattern.CASE_INSENSITIVE);
 
+    // Compact action codes for the simulations (same values as the genes of the solutions of Player)
+    public static final byte ACTION_FIRE = 0;
+    public static final byte ACTION_MINE = 1;
+    public static final byte ACTION_PORT = 2;
+    public static final byte ACTION_STARBOARD = 3;
+    public static final byte ACTION_FASTER = 4;
+    public static final byte ACTION_SLOWER = 5;
+    public static final byte ACTION_WAIT = 6;
+    public static final byte ACTION_MOVE = 7;
+
     public static int clamp(int val, int min, int max) {
         return Math.max(min, Math.min(max, val));
     }
@@ -104,6 +113,71 @@ class Referee {
     public static class Coord {
         private final static int[][] DIRECTIONS_EVEN = new int[][] { { 1, 0 }, { 0, -1 }, { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, 1 } };
         private final static int[][] DIRECTIONS_ODD = new int[][] { { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, 0 }, { 0, 1 }, { 1, 1 } };
+
+        // Shared instances of the map cells and of a margin around the map (bow, stern and mine drops can be outside)
+        private static final int CACHE_MARGIN = 2;
+        private static final int CACHE_WIDTH = MAP_WIDTH + 2 * CACHE_MARGIN;
+        private static final int CACHE_HEIGHT = MAP_HEIGHT + 2 * CACHE_MARGIN;
+        private static final Coord[] CACHE = new Coord[CACHE_WIDTH * CACHE_HEIGHT];
+
+        static {
+            for (int y = 0; y < CACHE_HEIGHT; y++) {
+                for (int x = 0; x < CACHE_WIDTH; x++) {
+                    CACHE[x + y * CACHE_WIDTH] = new Coord(x - CACHE_MARGIN, y - CACHE_MARGIN);
+                }
+            }
+        }
+
+        /**
+         * Shared coord of (x, y), only coords far outside the map are allocated
+         */
+        public static Coord of(int x, int y) {
+            int cacheX = x + CACHE_MARGIN;
+            int cacheY = y + CACHE_MARGIN;
+            if (cacheX >= 0 && cacheX < CACHE_WIDTH && cacheY >= 0 && cacheY < CACHE_HEIGHT) {
+                return CACHE[cacheX + cacheY * CACHE_WIDTH];
+            }
+            return new Coord(x, y);
+        }
+
+        // Tables on the cells of the map, the cell index of (x, y) is x + y * MAP_WIDTH
+        public static final int CELL_COUNT = MAP_WIDTH * MAP_HEIGHT;
+        public static final int NO_CELL = -1;
+        private static final int[] NEIGHBOR_CELLS = new int[CELL_COUNT * 6];
+        private static final byte[] CELL_DISTANCES = new byte[CELL_COUNT * CELL_COUNT];
+
+        static {
+            CubeCoordinate[] cubes = new CubeCoordinate[CELL_COUNT];
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                Coord coord = of(cell % MAP_WIDTH, cell / MAP_WIDTH);
+                for (int orientation = 0; orientation < 6; orientation++) {
+                    Coord neighbor = coord.neighbor(orientation);
+                    NEIGHBOR_CELLS[cell * 6 + orientation] = neighbor.isInsideMap() ? neighbor.toCellIndex() : NO_CELL;
+                }
+                cubes[cell] = coord.toCubeCoordinate();
+            }
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                for (int other = 0; other < CELL_COUNT; other++) {
+                    CELL_DISTANCES[cell * CELL_COUNT + other] = (byte) cubes[cell].distanceTo(cubes[other]);
+                }
+            }
+        }
+
+        /**
+         * @return the neighbor cell index in the given orientation or NO_CELL if outside the map
+         */
+        public static int neighborCell(int cell, int orientation) {
+            return NEIGHBOR_CELLS[cell * 6 + orientation];
+        }
+
+        public static int cellDistance(int cell, int otherCell) {
+            return CELL_DISTANCES[cell * CELL_COUNT + otherCell];
+        }
+
+        public static int cellIndex(int x, int y) {
+            return x + y * MAP_WIDTH;
+        }
+
         private final int x;
         private final int y;
 
@@ -115,12 +189,13 @@ class Referee {
             return y;
         }
 
-        public Coord(int x, int y) {
+        // Use Coord.of to get the shared instance
+        private Coord(int x, int y) {
             this.x = x;
             this.y = y;
         }
 
-        public Coord(Coord other) {
+        private Coord(Coord other) {
             this.x = other.x;
             this.y = other.y;
         }
@@ -159,19 +234,32 @@ class Referee {
                 newX = this.x + DIRECTIONS_EVEN[orientation][0];
             }
 
-            return new Coord(newX, newY);
+            return of(newX, newY);
         }
 
         boolean isInsideMap() {
             return x >= 0 && x < MAP_WIDTH && y >= 0 && y < MAP_HEIGHT;
         }
 
+        /**
+         * @return the cell index of this coord or NO_CELL if outside the map
+         */
+        public int toCellIndex() {
+            return isInsideMap() ? cellIndex(x, y) : NO_CELL;
+        }
+
         int distanceTo(Coord dst) {
+            if (isInsideMap() && dst.isInsideMap()) {
+                return CELL_DISTANCES[cellIndex(x, y) * CELL_COUNT + cellIndex(dst.x, dst.y)];
+            }
             return this.toCubeCoordinate().distanceTo(dst.toCubeCoordinate());
         }
 
         @Override
         public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
             if (obj == null || getClass() != obj.getClass()) {
                 return false;
             }
@@ -198,7 +286,7 @@ class Referee {
         Coord toOffsetCoordinate() {
             int newX = x + (z - (z & 1)) / 2;
             int newY = z;
-            return new Coord(newX, newY);
+            return Coord.of(newX, newY);
         }
 
         CubeCoordinate neighbor(int orientation) {
@@ -224,22 +312,23 @@ class Referee {
     }
 
     public static abstract class Entity {
-        private static int UNIQUE_ENTITY_ID = 0;
+        // Atomic: the games of Tournament create entities on several threads
+        private static final AtomicInteger UNIQUE_ENTITY_ID = new AtomicInteger();
 
         protected int id;
         protected final EntityType type;
         protected Coord position;
 
         public Entity(EntityType type, int x, int y) {
-            this.id = UNIQUE_ENTITY_ID++;
+            this.id = UNIQUE_ENTITY_ID.getAndIncrement();
             this.type = type;
-            this.position = new Coord(x, y);
+            this.position = Coord.of(x, y);
         }
 
         public Entity(EntityType type, int x, int y, int id) {
             this.id = id;
             this.type = type;
-            this.position = new Coord(x, y);
+            this.position = Coord.of(x, y);
         }
 
         public int getId() {
@@ -294,20 +383,26 @@ class Referee {
             return toPlayerString(0, 0, 0, 0);
         }
 
-        public List<Damage> explode(List<Ship> ships, boolean force) {
-            List<Damage> damage = new ArrayList<>();
+        /**
+         * Explode the mine if a ship is on it or if force
+         * @param damage : damages for the view, null to not record them (lean simulation)
+         * @return true if the mine exploded
+         */
+        public boolean explode(List<Ship> ships, boolean force, List<Damage> damage) {
             Ship victim = null;
 
             for (Ship ship : ships) {
                 if (position.equals(ship.bow()) || position.equals(ship.stern()) || position.equals(ship.position)) {
-                    damage.add(new Damage(this.position, MINE_DAMAGE, true));
+                    if (damage != null) {
+                        damage.add(new Damage(this.position, MINE_DAMAGE, true));
+                    }
                     ship.damage(MINE_DAMAGE);
                     victim = ship;
                 }
             }
 
             if (force || victim != null) {
-                if (victim == null) {
+                if (victim == null && damage != null) {
                     damage.add(new Damage(this.position, MINE_DAMAGE, true));
                 }
 
@@ -326,21 +421,24 @@ class Referee {
 
                         if (impactPosition != null) {
                             ship.damage(NEAR_MINE_DAMAGE);
-                            damage.add(new Damage(impactPosition, NEAR_MINE_DAMAGE, true));
+                            if (damage != null) {
+                                damage.add(new Damage(impactPosition, NEAR_MINE_DAMAGE, true));
+                            }
                         }
                     }
                 }
+                return true;
             }
 
-            return damage;
+            return false;
         }
     }
 
     public static class Cannonball extends Entity {
-        final int ownerEntityId;
-        final int srcX;
-        final int srcY;
-        final int initialRemainingTurns;
+        int ownerEntityId;
+        int srcX;
+        int srcY;
+        int initialRemainingTurns;
         int remainingTurns;
 
         public Cannonball(int row, int col, int ownerEntityId, int srcX, int srcY, int remainingTurns) {
@@ -399,7 +497,7 @@ class Referee {
         }
 
         public Damage clone() {
-            Damage damage = new Damage(this.position.clone(),  this.health, this.hit);
+            Damage damage = new Damage(this.position,  this.health, this.hit);
             return damage;
         }
 
@@ -408,10 +506,67 @@ class Referee {
         }
     }
 
+    /**
+     * Set of map cells stored in 8 longs (483 bits), used as a fast filter before scanning the entity lists
+     */
+    public static class CellSet {
+        private final long[] bits = new long[(Coord.CELL_COUNT + 63) / 64];
+
+        public void add(int cell) {
+            bits[cell >>> 6] |= 1L << cell;
+        }
+
+        // Coords outside the map are ignored
+        public void add(Coord coord) {
+            if (coord.isInsideMap()) {
+                add(coord.toCellIndex());
+            }
+        }
+
+        public void remove(int cell) {
+            bits[cell >>> 6] &= ~(1L << cell);
+        }
+
+        public boolean contains(int cell) {
+            return (bits[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+        public boolean contains(Coord coord) {
+            return coord.isInsideMap() && contains(coord.toCellIndex());
+        }
+
+        public boolean intersects(CellSet other) {
+            for (int i = 0; i < bits.length; i++) {
+                if ((bits[i] & other.bits[i]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void clear() {
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = 0;
+            }
+        }
+    }
+
     public static enum Action {
         FASTER, SLOWER, PORT, STARBOARD, FIRE, MINE
     }
 
+    /**
+     * Result of updateGame (instead of an exception at the end of the game)
+     */
+    public static enum Outcome {
+        // No ship destroyed during the round
+        CONTINUE,
+        // At least one ship destroyed, the game goes on
+        SHIP_LOST,
+        // One of the players has no ship anymore
+        GAME_OVER
+    }
+
     public static class Ship extends Entity {
 
 
@@ -429,6 +584,8 @@ class Referee {
         public Coord newPosition;
         public Coord newBowCoordinate;
         public Coord newSternCoordinate;
+        // Health won (barrels) minus health lost since the ship was created or restored
+        int healthWin;
 
         public Ship(int x, int y, int orientation, int owner) {
             super(EntityType.SHIP, x, y);
@@ -492,31 +649,41 @@ class Referee {
         }
 
         public void moveTo(int x, int y) {
-            Coord currentPosition = this.position;
-            Coord targetPosition = new Coord(x, y);
+            this.action = NavigationTable.toAction(NavigationTable.moveAction(position.x, position.y, orientation, speed, x, y));
+        }
+
+        /**
+         * Action of the MOVE command of a ship
+         * @param currentPosition : position of the ship
+         * @param orientation : orientation of the ship
+         * @param speed : speed of the ship
+         * @param targetPosition : target of the MOVE
+         * @return the action or null to wait
+         */
+        public static Action navigate(Coord currentPosition, int orientation, int speed, Coord targetPosition) {
+            Action action = null;
 
             if (currentPosition.equals(targetPosition)) {
-                this.action = Action.SLOWER;
-                return;
+                return Action.SLOWER;
             }
 
             double targetAngle, angleStraight, anglePort, angleStarboard, centerAngle, anglePortCenter, angleStarboardCenter;
 
             switch (speed) {
                 case 2:
-                    this.action = Action.SLOWER;
+                    action = Action.SLOWER;
                     break;
                 case 1:
                     // Suppose we've moved first
                     currentPosition = currentPosition.neighbor(orientation);
                     if (!currentPosition.isInsideMap()) {
-                        this.action = Action.SLOWER;
+                        action = Action.SLOWER;
                         break;
                     }
 
                     // Target reached at next turn
                     if (currentPosition.equals(targetPosition)) {
-                        this.action = null;
+                        action = null;
                         break;
                     }
 
@@ -526,13 +693,13 @@ class Referee {
                     anglePort = Math.min(Math.abs((orientation + 1) - targetAngle), Math.abs((orientation - 5) - targetAngle));
                     angleStarboard = Math.min(Math.abs((orientation + 5) - targetAngle), Math.abs((orientation - 1) - targetAngle));
 
-                    centerAngle = currentPosition.angle(new Coord(MAP_WIDTH / 2, MAP_HEIGHT / 2));
+                    centerAngle = currentPosition.angle(Coord.of(MAP_WIDTH / 2, MAP_HEIGHT / 2));
                     anglePortCenter = Math.min(Math.abs((orientation + 1) - centerAngle), Math.abs((orientation - 5) - centerAngle));
                     angleStarboardCenter = Math.min(Math.abs((orientation + 5) - centerAngle), Math.abs((orientation - 1) - centerAngle));
 
                     // Next to target with bad angle, slow down then rotate (avoid to turn around the target!)
                     if (currentPosition.distanceTo(targetPosition) == 1 && angleStraight > 1.5) {
-                        this.action = Action.SLOWER;
+                        action = Action.SLOWER;
                         break;
                     }
 
@@ -542,7 +709,7 @@ class Referee {
                     Coord nextPosition = currentPosition.neighbor(orientation);
                     if (nextPosition.isInsideMap()) {
                         distanceMin = nextPosition.distanceTo(targetPosition);
-                        this.action = null;
+                        action = null;
                     }
 
                     // Test port
@@ -551,7 +718,7 @@ class Referee {
                         int distance = nextPosition.distanceTo(targetPosition);
                         if (distanceMin == null || distance < distanceMin || distance == distanceMin && anglePort < angleStraight - 0.5) {
                             distanceMin = distance;
-                            this.action = Action.PORT;
+                            action = Action.PORT;
                         }
                     }
 
@@ -560,14 +727,14 @@ class Referee {
                     if (nextPosition.isInsideMap()) {
                         int distance = nextPosition.distanceTo(targetPosition);
                         if (distanceMin == null || distance < distanceMin
-                                || (distance == distanceMin && angleStarboard < anglePort - 0.5 && this.action == Action.PORT)
-                                || (distance == distanceMin && angleStarboard < angleStraight - 0.5 && this.action == null)
-                                || (distance == distanceMin && this.action == Action.PORT && angleStarboard == anglePort
+                                || (distance == distanceMin && angleStarboard < anglePort - 0.5 && action == Action.PORT)
+                                || (distance == distanceMin && angleStarboard < angleStraight - 0.5 && action == null)
+                                || (distance == distanceMin && action == Action.PORT && angleStarboard == anglePort
                                 && angleStarboardCenter < anglePortCenter)
-                                || (distance == distanceMin && this.action == Action.PORT && angleStarboard == anglePort
+                                || (distance == distanceMin && action == Action.PORT && angleStarboard == anglePort
                                 && angleStarboardCenter == anglePortCenter && (orientation == 1 || orientation == 4))) {
                             distanceMin = distance;
-                            this.action = Action.STARBOARD;
+                            action = Action.STARBOARD;
                         }
                     }
                     break;
@@ -578,29 +745,30 @@ class Referee {
                     anglePort = Math.min(Math.abs((orientation + 1) - targetAngle), Math.abs((orientation - 5) - targetAngle));
                     angleStarboard = Math.min(Math.abs((orientation + 5) - targetAngle), Math.abs((orientation - 1) - targetAngle));
 
-                    centerAngle = currentPosition.angle(new Coord(MAP_WIDTH / 2, MAP_HEIGHT / 2));
+                    centerAngle = currentPosition.angle(Coord.of(MAP_WIDTH / 2, MAP_HEIGHT / 2));
                     anglePortCenter = Math.min(Math.abs((orientation + 1) - centerAngle), Math.abs((orientation - 5) - centerAngle));
                     angleStarboardCenter = Math.min(Math.abs((orientation + 5) - centerAngle), Math.abs((orientation - 1) - centerAngle));
 
                     Coord forwardPosition = currentPosition.neighbor(orientation);
 
-                    this.action = null;
+                    action = null;
 
                     if (anglePort <= angleStarboard) {
-                        this.action = Action.PORT;
+                        action = Action.PORT;
                     }
 
                     if (angleStarboard < anglePort || angleStarboard == anglePort && angleStarboardCenter < anglePortCenter
                             || angleStarboard == anglePort && angleStarboardCenter == anglePortCenter && (orientation == 1 || orientation == 4)) {
-                        this.action = Action.STARBOARD;
+                        action = Action.STARBOARD;
                     }
 
                     if (forwardPosition.isInsideMap() && angleStraight <= anglePort && angleStraight <= angleStarboard) {
-                        this.action = Action.FASTER;
+                        action = Action.FASTER;
                     }
                     break;
             }
 
+            return action;
         }
 
         public void faster() {
@@ -679,12 +847,7 @@ class Referee {
         }
 
         public void damage(int health) {
-
-            if(this.owner == 1) {
-                myHealtWin -= health;
-            } else {
-                ennemyHealtWin -= health;
-            }
+            this.healthWin -= health;
 
             this.health -= health;
             if (this.health <= 0) {
@@ -694,12 +857,7 @@ class Referee {
 
         public void heal(int health) {
             this.health += health;
-
-            if(this.owner == 1) {
-                myHealtWin += health;
-            } else {
-                ennemyHealtWin += health;
-            }
+            this.healthWin += health;
 
             if (this.health > MAX_SHIP_HEALTH) {
                 this.health = MAX_SHIP_HEALTH;
@@ -708,8 +866,7 @@ class Referee {
 
         public void fire(int x, int y) {
             if (CANNONS_ENABLED) {
-                Coord target = new Coord(x, y);
-                this.target = target;
+                this.target = Coord.of(x, y);
                 this.action = Action.FIRE;
             }
         }
@@ -797,14 +954,34 @@ class Referee {
     private int barrelCount;
     private Random random;
 
-    //FIXME: static variable not necessary (and realy ugly here)
-    public static int ennemyHealtWin = 0;
-    public static int myHealtWin = 0;
+    // Lean simulation: the damages for the view are not recorded (only the rules and the score)
+    private boolean leanSimulation;
 
+    // Cells occupied by the barrels and the mines, updated with the lists
+    private CellSet barrelCells = new CellSet();
+    private CellSet mineCells = new CellSet();
+    // Cells occupied by the ships, filled in checkCollisions
+    private CellSet shipCells = new CellSet();
 
     public Referee(InputStream is, PrintStream out, PrintStream err) throws IOException {
     }
 
+    // Empty referee for the simulations, filled with restoreState
+    public Referee() {
+    }
+
+    /**
+     * @param leanSimulation : true to not record the damages of the view (getFrameDataForView), for the simulations
+     */
+    public void setLeanSimulation(boolean leanSimulation) {
+        this.leanSimulation = leanSimulation;
+    }
+
+    // Damages recorded for the view, null in a lean simulation
+    private List<Damage> viewDamage() {
+        return leanSimulation ? null : damage;
+    }
+
     public static void main(String... args) throws IOException {
         new Referee(System.in, System.out, System.err);
     }
@@ -812,9 +989,6 @@ class Referee {
     // Copy constructor
     public Referee(Referee ref) {
 
-        ennemyHealtWin = 0;
-        myHealtWin = 0;
-
         this.seed = ref.seed;
 
 
@@ -857,7 +1031,7 @@ class Referee {
 
         this.cannonBallExplosions = new ArrayList<>();
         for(Coord cannonballExplosion : ref.cannonBallExplosions) {
-            this.cannonBallExplosions.add(cannonballExplosion.clone());
+            this.cannonBallExplosions.add(cannonballExplosion);
         }
 
         this.cannonballs = ref.cannonballs;
@@ -870,6 +1044,348 @@ class Referee {
         this.mineCount = ref.mineCount;
         this.barrelCount = ref.barrelCount;
         this.random = ref.random;
+
+        updateOccupiedCells();
+    }
+
+    /**
+     * Fill barrelCells and mineCells from the lists, must be called when the lists are replaced
+     */
+    private void updateOccupiedCells() {
+        barrelCells.clear();
+        for (RumBarrel barrel : barrels) {
+            barrelCells.add(barrel.position);
+        }
+        mineCells.clear();
+        for (Mine mine : mines) {
+            mineCells.add(mine.position);
+        }
+    }
+
+    // Update barrelCells after the removal of a barrel (an other barrel can be on the same cell)
+    private void barrelRemoved(Coord position) {
+        barrelCells.remove(position.toCellIndex());
+        for (RumBarrel barrel : barrels) {
+            if (barrel.position.equals(position)) {
+                barrelCells.add(position);
+                return;
+            }
+        }
+    }
+
+    // Update mineCells after the removal of a mine (an other mine can be on the same cell)
+    private void mineRemoved(Coord position) {
+        mineCells.remove(position.toCellIndex());
+        for (Mine mine : mines) {
+            if (mine.position.equals(position)) {
+                mineCells.add(position);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Preallocated storage used by saveState / restoreState.
+     * Arrays only grow, so a buffer reused between rounds does not allocate anymore after the first rounds.
+     * Coord are immutable so they are shared and not copied.
+     */
+    public static class Snapshot {
+        private long seed;
+        private int shipsPerPlayer;
+        private int mineCount;
+        private int barrelCount;
+        private Random random;
+
+        private int playerCount;
+        private int[] playerShipCount = new int[2];
+
+        private int shipsSize;
+        private int[] shipId, shipOwner, shipOrientation, shipSpeed, shipHealth, shipMineCooldown, shipCannonCooldown;
+        private boolean[] shipAlive;
+        private Coord[] shipPosition;
+
+        private int minesSize;
+        private int[] mineId;
+        private Coord[] minePosition;
+
+        private int barrelsSize;
+        private int[] barrelId, barrelHealth;
+        private Coord[] barrelPosition;
+
+        private int cannonballsSize;
+        private int[] cannonballId, cannonballOwner, cannonballSrcX, cannonballSrcY, cannonballInitialTurns, cannonballRemainingTurns;
+        private Coord[] cannonballPosition;
+
+        public Snapshot() {
+            ensureShipCapacity(2 * MAX_SHIPS);
+            ensureMineCapacity(2 * MAX_MINES);
+            ensureBarrelCapacity(MAX_RUM_BARRELS + 2 * MAX_SHIPS);
+            ensureCannonballCapacity(4 * MAX_SHIPS);
+        }
+
+        private void ensureShipCapacity(int size) {
+            if (shipId != null && shipId.length >= size) {
+                return;
+            }
+            shipId = new int[size];
+            shipOwner = new int[size];
+            shipOrientation = new int[size];
+            shipSpeed = new int[size];
+            shipHealth = new int[size];
+            shipMineCooldown = new int[size];
+            shipCannonCooldown = new int[size];
+            shipAlive = new boolean[size];
+            shipPosition = new Coord[size];
+        }
+
+        private void ensureMineCapacity(int size) {
+            if (mineId != null && mineId.length >= size) {
+                return;
+            }
+            mineId = new int[size];
+            minePosition = new Coord[size];
+        }
+
+        private void ensureBarrelCapacity(int size) {
+            if (barrelId != null && barrelId.length >= size) {
+                return;
+            }
+            barrelId = new int[size];
+            barrelHealth = new int[size];
+            barrelPosition = new Coord[size];
+        }
+
+        private void ensureCannonballCapacity(int size) {
+            if (cannonballId != null && cannonballId.length >= size) {
+                return;
+            }
+            cannonballId = new int[size];
+            cannonballOwner = new int[size];
+            cannonballSrcX = new int[size];
+            cannonballSrcY = new int[size];
+            cannonballInitialTurns = new int[size];
+            cannonballRemainingTurns = new int[size];
+            cannonballPosition = new Coord[size];
+        }
+    }
+
+    // Entities reused by restoreState
+    private List<Ship> shipPool;
+    private List<Mine> minePool;
+    private List<RumBarrel> barrelPool;
+    private List<Cannonball> cannonballPool;
+
+    /**
+     * Save the state of the game in a preallocated snapshot
+     * @param snapshot : buffer to fill
+     */
+    public void saveState(Snapshot snapshot) {
+        snapshot.seed = seed;
+        snapshot.shipsPerPlayer = shipsPerPlayer;
+        snapshot.mineCount = mineCount;
+        snapshot.barrelCount = barrelCount;
+        snapshot.random = random;
+
+        snapshot.playerCount = players.size();
+        if (snapshot.playerShipCount.length < players.size()) {
+            snapshot.playerShipCount = new int[players.size()];
+        }
+
+        int shipsSize = 0;
+        for (Player player : players) {
+            shipsSize += player.ships.size();
+        }
+        snapshot.ensureShipCapacity(shipsSize);
+
+        int k = 0;
+        for (int p = 0; p < players.size(); p++) {
+            Player player = players.get(p);
+            snapshot.playerShipCount[p] = player.ships.size();
+            for (Ship ship : player.ships) {
+                snapshot.shipId[k] = ship.id;
+                snapshot.shipOwner[k] = ship.owner;
+                snapshot.shipOrientation[k] = ship.orientation;
+                snapshot.shipSpeed[k] = ship.speed;
+                snapshot.shipHealth[k] = ship.health;
+                snapshot.shipMineCooldown[k] = ship.mineCooldown;
+                snapshot.shipCannonCooldown[k] = ship.cannonCooldown;
+                snapshot.shipAlive[k] = player.shipsAlive.contains(ship);
+                snapshot.shipPosition[k] = ship.position;
+                k++;
+            }
+        }
+        snapshot.shipsSize = shipsSize;
+
+        snapshot.ensureMineCapacity(mines.size());
+        snapshot.minesSize = mines.size();
+        for (int i = 0; i < mines.size(); i++) {
+            Mine mine = mines.get(i);
+            snapshot.mineId[i] = mine.id;
+            snapshot.minePosition[i] = mine.position;
+        }
+
+        snapshot.ensureBarrelCapacity(barrels.size());
+        snapshot.barrelsSize = barrels.size();
+        for (int i = 0; i < barrels.size(); i++) {
+            RumBarrel barrel = barrels.get(i);
+            snapshot.barrelId[i] = barrel.id;
+            snapshot.barrelHealth[i] = barrel.health;
+            snapshot.barrelPosition[i] = barrel.position;
+        }
+
+        snapshot.ensureCannonballCapacity(cannonballs.size());
+        snapshot.cannonballsSize = cannonballs.size();
+        for (int i = 0; i < cannonballs.size(); i++) {
+            Cannonball ball = cannonballs.get(i);
+            snapshot.cannonballId[i] = ball.id;
+            snapshot.cannonballOwner[i] = ball.ownerEntityId;
+            snapshot.cannonballSrcX[i] = ball.srcX;
+            snapshot.cannonballSrcY[i] = ball.srcY;
+            snapshot.cannonballInitialTurns[i] = ball.initialRemainingTurns;
+            snapshot.cannonballRemainingTurns[i] = ball.remainingTurns;
+            snapshot.cannonballPosition[i] = ball.position;
+        }
+    }
+
+    /**
+     * Reset this referee to a saved state, reusing its own entities (replace the copy constructor in the simulations).
+     * The lists of this referee must not be shared with an other referee.
+     * @param snapshot : state saved with saveState
+     */
+    public void restoreState(Snapshot snapshot) {
+        this.seed = snapshot.seed;
+        this.shipsPerPlayer = snapshot.shipsPerPlayer;
+        this.mineCount = snapshot.mineCount;
+        this.barrelCount = snapshot.barrelCount;
+        this.random = snapshot.random;
+
+        if (players == null) {
+            players = new ArrayList<>();
+            ships = new ArrayList<>();
+            mines = new ArrayList<>();
+            barrels = new ArrayList<>();
+            cannonballs = new ArrayList<>();
+            damage = new ArrayList<>();
+            shipLosts = new ArrayList<>();
+            cannonBallExplosions = new ArrayList<>();
+            shipPool = new ArrayList<>();
+            minePool = new ArrayList<>();
+            barrelPool = new ArrayList<>();
+            cannonballPool = new ArrayList<>();
+        }
+
+        while (players.size() < snapshot.playerCount) {
+            players.add(new Player(players.size()));
+        }
+        while (players.size() > snapshot.playerCount) {
+            players.remove(players.size() - 1);
+        }
+
+        ships.clear();
+        damage.clear();
+        shipLosts.clear();
+        cannonBallExplosions.clear();
+
+        int k = 0;
+        for (int p = 0; p < snapshot.playerCount; p++) {
+            Player player = players.get(p);
+            player.clearShip();
+            for (int j = 0; j < snapshot.playerShipCount[p]; j++) {
+                while (shipPool.size() <= k) {
+                    shipPool.add(new Ship(0, 0, 0, 0));
+                }
+                Ship ship = shipPool.get(k);
+                ship.id = snapshot.shipId[k];
+                ship.owner = snapshot.shipOwner[k];
+                ship.orientation = snapshot.shipOrientation[k];
+                ship.speed = snapshot.shipSpeed[k];
+                ship.health = snapshot.shipHealth[k];
+                ship.mineCooldown = snapshot.shipMineCooldown[k];
+                ship.cannonCooldown = snapshot.shipCannonCooldown[k];
+                ship.position = snapshot.shipPosition[k];
+                ship.action = null;
+                ship.message = null;
+                ship.target = null;
+                ship.newOrientation = ship.orientation;
+                ship.newPosition = null;
+                ship.newBowCoordinate = null;
+                ship.newSternCoordinate = null;
+                ship.healthWin = 0;
+
+                player.ships.add(ship);
+                if (snapshot.shipAlive[k]) {
+                    player.shipsAlive.add(ship);
+                    ships.add(ship);
+                }
+                k++;
+            }
+        }
+
+        mines.clear();
+        for (int i = 0; i < snapshot.minesSize; i++) {
+            while (minePool.size() <= i) {
+                minePool.add(new Mine(0, 0));
+            }
+            Mine mine = minePool.get(i);
+            mine.id = snapshot.mineId[i];
+            mine.position = snapshot.minePosition[i];
+            mines.add(mine);
+        }
+
+        barrels.clear();
+        for (int i = 0; i < snapshot.barrelsSize; i++) {
+            while (barrelPool.size() <= i) {
+                barrelPool.add(new RumBarrel(0, 0, 0));
+            }
+            RumBarrel barrel = barrelPool.get(i);
+            barrel.id = snapshot.barrelId[i];
+            barrel.health = snapshot.barrelHealth[i];
+            barrel.position = snapshot.barrelPosition[i];
+            barrels.add(barrel);
+        }
+
+        cannonballs.clear();
+        for (int i = 0; i < snapshot.cannonballsSize; i++) {
+            while (cannonballPool.size() <= i) {
+                cannonballPool.add(new Cannonball(0, 0, 0, 0, 0, 0));
+            }
+            Cannonball ball = cannonballPool.get(i);
+            ball.id = snapshot.cannonballId[i];
+            ball.ownerEntityId = snapshot.cannonballOwner[i];
+            ball.srcX = snapshot.cannonballSrcX[i];
+            ball.srcY = snapshot.cannonballSrcY[i];
+            ball.initialRemainingTurns = snapshot.cannonballInitialTurns[i];
+            ball.remainingTurns = snapshot.cannonballRemainingTurns[i];
+            ball.position = snapshot.cannonballPosition[i];
+            cannonballs.add(ball);
+        }
+
+        updateOccupiedCells();
+    }
+
+    /**
+     * Fill a compact GameState (structure of arrays) with the state of the game
+     * @param state : state to fill
+     */
+    public void saveState(GameState state) {
+        state.clear();
+
+        for (int p = 0; p < players.size(); p++) {
+            Player player = players.get(p);
+            for (Ship ship : player.ships) {
+                state.addShip(ship.id, p, ship.position.x, ship.position.y, ship.orientation, ship.speed, ship.health, ship.mineCooldown,
+                        ship.cannonCooldown, player.shipsAlive.contains(ship));
+            }
+        }
+        for (Mine mine : mines) {
+            state.addMine(mine.position.x, mine.position.y);
+        }
+        for (RumBarrel barrel : barrels) {
+            state.addBarrel(barrel.position.x, barrel.position.y, barrel.health);
+        }
+        for (Cannonball ball : cannonballs) {
+            state.addCannonball(ball.position.x, ball.position.y, ball.remainingTurns);
+        }
     }
 
     Comparator<Ship> idComparator = new Comparator<Ship>() {
@@ -940,8 +1456,8 @@ class Referee {
             }
         }*/
 
-        score += myHealtWin*10;
-        score -= ennemyHealtWin;
+        score += secondRef.getHealthWin(1)*10;
+        score -= secondRef.getHealthWin(0);
 
         //System.err.println("Score:" + score);
         return score;
@@ -1048,6 +1564,7 @@ class Referee {
             }
         }
 
+        updateOccupiedCells();
     }
 
 
@@ -1066,6 +1583,7 @@ class Referee {
         this.barrels = (List<RumBarrel>)(List<?>)rumBarrels;
         this.cannonballs = (List<Cannonball>)(List<?>)cannonballs;
         this.ships.clear();
+        updateOccupiedCells();
 
         for(Player player : players) {
             ships.addAll(player.ships);
@@ -1121,7 +1639,7 @@ class Referee {
 
         int nbRound = 1 + (shipShooter.distanceTo(ennemyShip)) / 3;
 
-        Coord nextCoord = ennemyShip.position.clone();
+        Coord nextCoord = ennemyShip.position;
 
         for(int i=0; i<nbRound*ennemyShip.speed; i++) {
 
@@ -1141,60 +1659,102 @@ class Referee {
         return this.players.get(playerIdx).shipsAlive.size();
     }
 
-    protected void handlePlayerOutput(int frame, int round, int playerIdx, String[] outputs) throws Exception {
+    /**
+     * Set the actions of the ships of the player from its outputs
+     * @return false if an output is not a valid action (the player is dead)
+     */
+    protected boolean handlePlayerOutput(int frame, int round, int playerIdx, String[] outputs) {
         Player player = this.players.get(playerIdx);
 
-        try {
-            int i = 0;
-            for (String line : outputs) {
-                Matcher matchWait = PLAYER_INPUT_WAIT_PATTERN.matcher(line);
-                Matcher matchMove = PLAYER_INPUT_MOVE_PATTERN.matcher(line);
-                Matcher matchFaster = PLAYER_INPUT_FASTER_PATTERN.matcher(line);
-                Matcher matchSlower = PLAYER_INPUT_SLOWER_PATTERN.matcher(line);
-                Matcher matchPort = PLAYER_INPUT_PORT_PATTERN.matcher(line);
-                Matcher matchStarboard = PLAYER_INPUT_STARBOARD_PATTERN.matcher(line);
-                Matcher matchFire = PLAYER_INPUT_FIRE_PATTERN.matcher(line);
-                Matcher matchMine = PLAYER_INPUT_MINE_PATTERN.matcher(line);
-                Ship ship = player.shipsAlive.get(i++);
-
-                if (matchMove.matches()) {
-                    int x = Integer.parseInt(matchMove.group("x"));
-                    int y = Integer.parseInt(matchMove.group("y"));
-                    ship.setMessage(matchMove.group("message"));
-                    ship.moveTo(x, y);
-                } else if (matchFaster.matches()) {
-                    ship.setMessage(matchFaster.group("message"));
-                    ship.faster();
-                } else if (matchSlower.matches()) {
-                    ship.setMessage(matchSlower.group("message"));
-                    ship.slower();
-                } else if (matchPort.matches()) {
-                    ship.setMessage(matchPort.group("message"));
+        int i = 0;
+        for (String line : outputs) {
+            if (i == player.shipsAlive.size()) {
+                System.err.println("TOO MANY ACTIONS " + line);
+                player.setDead();
+                return false;
+            }
+
+            Matcher matchWait = PLAYER_INPUT_WAIT_PATTERN.matcher(line);
+            Matcher matchMove = PLAYER_INPUT_MOVE_PATTERN.matcher(line);
+            Matcher matchFaster = PLAYER_INPUT_FASTER_PATTERN.matcher(line);
+            Matcher matchSlower = PLAYER_INPUT_SLOWER_PATTERN.matcher(line);
+            Matcher matchPort = PLAYER_INPUT_PORT_PATTERN.matcher(line);
+            Matcher matchStarboard = PLAYER_INPUT_STARBOARD_PATTERN.matcher(line);
+            Matcher matchFire = PLAYER_INPUT_FIRE_PATTERN.matcher(line);
+            Matcher matchMine = PLAYER_INPUT_MINE_PATTERN.matcher(line);
+            Ship ship = player.shipsAlive.get(i++);
+
+            if (matchMove.matches()) {
+                int x = Integer.parseInt(matchMove.group("x"));
+                int y = Integer.parseInt(matchMove.group("y"));
+                ship.setMessage(matchMove.group("message"));
+                ship.moveTo(x, y);
+            } else if (matchFaster.matches()) {
+                ship.setMessage(matchFaster.group("message"));
+                ship.faster();
+            } else if (matchSlower.matches()) {
+                ship.setMessage(matchSlower.group("message"));
+                ship.slower();
+            } else if (matchPort.matches()) {
+                ship.setMessage(matchPort.group("message"));
+                ship.port();
+            } else if (matchStarboard.matches()) {
+                ship.setMessage(matchStarboard.group("message"));
+                ship.starboard();
+            } else if (matchWait.matches()) {
+                ship.setMessage(matchWait.group("message"));
+            } else if (matchMine.matches()) {
+                ship.setMessage(matchMine.group("message"));
+                ship.placeMine();
+            } else if (matchFire.matches()) {
+                int x = Integer.parseInt(matchFire.group("x"));
+                int y = Integer.parseInt(matchFire.group("y"));
+                ship.setMessage(matchFire.group("message"));
+                ship.fire(x, y);
+            } else {
+                System.err.println("INVALID ACTION " + line);
+                player.setDead();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as handlePlayerOutput without the string protocol, for the simulations
+     * @param playerIdx
+     * @param actions : one ACTION_* code for each alive ship of the player
+     * @param targets : x and y of the target of FIRE and MOVE actions (targets[2*i], targets[2*i+1] for the ship i)
+     */
+    protected void handlePlayerActions(int playerIdx, byte[] actions, int[] targets) {
+        List<Ship> shipsAlive = this.players.get(playerIdx).shipsAlive;
+
+        for (int i = 0; i < shipsAlive.size(); i++) {
+            Ship ship = shipsAlive.get(i);
+            switch (actions[i]) {
+                case ACTION_FIRE:
+                    ship.fire(targets[2 * i], targets[2 * i + 1]);
+                    break;
+                case ACTION_MINE:
+                    ship.placeMine();
+                    break;
+                case ACTION_PORT:
                     ship.port();
-                } else if (matchStarboard.matches()) {
-                    ship.setMessage(matchStarboard.group("message"));
+                    break;
+                case ACTION_STARBOARD:
                     ship.starboard();
-                } else if (matchWait.matches()) {
-                    ship.setMessage(matchWait.group("message"));
-                } else if (matchMine.matches()) {
-                    ship.setMessage(matchMine.group("message"));
-                    ship.placeMine();
-                } else if (matchFire.matches()) {
-                    int x = Integer.parseInt(matchFire.group("x"));
-                    int y = Integer.parseInt(matchFire.group("y"));
-                    ship.setMessage(matchFire.group("message"));
-                    ship.fire(x, y);
-                } else {
-                    System.err.println("INVALID ACTION " + line);
-                    throw new Exception("A valid action");
-                }
-            }
-        } catch (Exception e) {
-            player.setDead();
-            try {
-                throw e;
-            } catch (Exception e1) {
-                e1.printStackTrace();
+                    break;
+                case ACTION_FASTER:
+                    ship.faster();
+                    break;
+                case ACTION_SLOWER:
+                    ship.slower();
+                    break;
+                case ACTION_MOVE:
+                    ship.moveTo(targets[2 * i], targets[2 * i + 1]);
+                    break;
+                default:
+                    break;
             }
         }
     }
@@ -1257,13 +1817,14 @@ class Referee {
                                 Coord target = ship.stern().neighbor((ship.orientation + 3) % 6);
 
                                 if (target.isInsideMap()) {
-                                    boolean cellIsFreeOfBarrels = barrels.stream().noneMatch(barrel -> barrel.position.equals(target));
+                                    boolean cellIsFreeOfBarrels = !barrelCells.contains(target);
                                     boolean cellIsFreeOfShips = ships.stream().filter(b -> b != ship).noneMatch(b -> b.at(target));
 
                                     if (cellIsFreeOfBarrels && cellIsFreeOfShips) {
                                         ship.mineCooldown = COOLDOWN_MINE;
                                         Mine mine = new Mine(target.x, target.y);
                                         mines.add(mine);
+                                        mineCells.add(target);
                                     }
                                 }
 
@@ -1291,7 +1852,12 @@ class Referee {
         Coord center = ship.position;
 
         // Collision with the barrels
-        for (Iterator<RumBarrel> it = barrels.iterator(); it.hasNext();) {
+        shipCells.clear();
+        shipCells.add(bow);
+        shipCells.add(stern);
+        shipCells.add(center);
+
+        for (Iterator<RumBarrel> it = barrels.iterator(); barrelCells.intersects(shipCells) && it.hasNext();) {
 
             RumBarrel barrel = it.next();
             if (barrel.position.equals(bow) || barrel.position.equals(stern) || barrel.position.equals(center)) {
@@ -1308,19 +1874,28 @@ class Referee {
                 //System.err.println("SHIP STRING " + shipString);
 
                 it.remove();
+                barrelRemoved(barrel.position);
             }
         }
 
-        // Collision with the mines
-        for (Iterator<Mine> it = mines.iterator(); it.hasNext();) {
-            Mine mine = it.next();
-            List<Damage> mineDamage = mine.explode(ships, false);
+        // Collision with the mines (a mine explodes on any ship, not only this one)
+        shipCells.clear();
+        for (Ship other : ships) {
+            shipCells.add(other.bow());
+            shipCells.add(other.stern());
+            shipCells.add(other.position);
+        }
 
-            if (!mineDamage.isEmpty()) {
+        for (Iterator<Mine> it = mines.iterator(); mineCells.intersects(shipCells) && it.hasNext();) {
+            Mine mine = it.next();
+            if (!shipCells.contains(mine.position)) {
+                continue;
+            }
+            if (mine.explode(ships, false, viewDamage())) {
 
                 //System.err.println("COLLISION with mines ------------------");
-                damage.addAll(mineDamage);
                 it.remove();
+                mineRemoved(mine.position);
             }
         }
 
@@ -1359,7 +1934,10 @@ class Referee {
             // Check ship and obstacles collisions
             List<Ship> collisions = new ArrayList<>();
             boolean collisionDetected = true;
-            while (collisionDetected) {
+            // Each pass with a collision reverts a move, or else it changes nothing and the loop never ends (a ship
+            // without rum keeps its position below and can overlap another one): at most one pass by ship and a last one
+            int passes = 0;
+            while (collisionDetected && passes++ <= ships.size()) {
                 collisionDetected = false;
 
                 for (Ship ship : this.ships) {
@@ -1410,7 +1988,9 @@ class Referee {
         // Check collisions
         boolean collisionDetected = true;
         List<Ship> collisions = new ArrayList<>();
-        while (collisionDetected) {
+        // Same guard as moveShips: at most one pass by ship and a last one
+        int passes = 0;
+        while (collisionDetected && passes++ <= ships.size()) {
             collisionDetected = false;
 
             for (Ship ship : this.ships) {
@@ -1460,13 +2040,17 @@ class Referee {
             for (Ship ship : ships) {
                 if (position.equals(ship.bow()) || position.equals(ship.stern())) {
                     //System.err.println("SHIP HIT !!! ");
-                    damage.add(new Damage(position, LOW_DAMAGE, true));
+                    if (!leanSimulation) {
+                        damage.add(new Damage(position, LOW_DAMAGE, true));
+                    }
                     ship.damage(LOW_DAMAGE);
                     it.remove();
                     break;
                 } else if (position.equals(ship.position)) {
                     //System.err.println("SHIP HIT !!! ");
-                    damage.add(new Damage(position, HIGH_DAMAGE, true));
+                    if (!leanSimulation) {
+                        damage.add(new Damage(position, HIGH_DAMAGE, true));
+                    }
                     ship.damage(HIGH_DAMAGE);
                     it.remove();
                     break;
@@ -1478,11 +2062,15 @@ class Referee {
     void explodeMines() {
         for (Iterator<Coord> itBall = cannonBallExplosions.iterator(); itBall.hasNext();) {
             Coord position = itBall.next();
+            if (!mineCells.contains(position)) {
+                continue;
+            }
             for (Iterator<Mine> it = mines.iterator(); it.hasNext();) {
                 Mine mine = it.next();
                 if (mine.position.equals(position)) {
-                    damage.addAll(mine.explode(ships, true));
+                    mine.explode(ships, true, viewDamage());
                     it.remove();
+                    mineRemoved(position);
                     itBall.remove();
                     break;
                 }
@@ -1493,11 +2081,17 @@ class Referee {
     void explodeBarrels() {
         for (Iterator<Coord> itBall = cannonBallExplosions.iterator(); itBall.hasNext();) {
             Coord position = itBall.next();
+            if (!barrelCells.contains(position)) {
+                continue;
+            }
             for (Iterator<RumBarrel> it = barrels.iterator(); it.hasNext();) {
                 RumBarrel barrel = it.next();
                 if (barrel.position.equals(position)) {
-                    damage.add(new Damage(position, 0, true));
+                    if (!leanSimulation) {
+                        damage.add(new Damage(position, 0, true));
+                    }
                     it.remove();
+                    barrelRemoved(position);
                     itBall.remove();
                     break;
                 }
@@ -1505,7 +2099,11 @@ class Referee {
         }
     }
 
-    protected void updateGame(int round) throws  Exception {
+    /**
+     * Play the round with the actions of the ships
+     * @return GAME_OVER at the end of the game, SHIP_LOST if a ship was destroyed during the round
+     */
+    protected Outcome updateGame(int round) {
 
         moveCannonballs();
         decrementRum();
@@ -1520,24 +2118,30 @@ class Referee {
 
         for (Ship ship : shipLosts) {
             barrels.add(new RumBarrel(ship.position.x, ship.position.y, REWARD_RUM_BARREL_VALUE));
+            barrelCells.add(ship.position);
         }
 
-        for (Coord position : cannonBallExplosions) {
-            damage.add(new Damage(position, 0, false));
+        if (!leanSimulation) {
+            for (Coord position : cannonBallExplosions) {
+                damage.add(new Damage(position, 0, false));
+            }
         }
 
+        boolean shipLost = false;
         for (Iterator<Ship> it = ships.iterator(); it.hasNext();) {
             Ship ship = it.next();
             if (ship.health <= 0) {
                 //System.err.println("Ship: " + ship.getId() +" is dead !! ");
                 players.get(ship.owner).shipsAlive.remove(ship);
                 it.remove();
+                shipLost = true;
             }
         }
 
         if (gameIsOver()) {
-            throw new Exception("endReached");
+            return Outcome.GAME_OVER;
         }
+        return shipLost ? Outcome.SHIP_LOST : Outcome.CONTINUE;
     }
 
     protected void populateMessages(Properties p) {
@@ -1675,6 +2279,19 @@ class Referee {
         return 50;
     }
 
+    /**
+     * Health won minus health lost by the ships of a player since this referee was copied or restored
+     * @param playerId
+     * @return the health balance
+     */
+    public int getHealthWin(int playerId) {
+        int healthWin = 0;
+        for (Ship ship : players.get(playerId).ships) {
+            healthWin += ship.healthWin;
+        }
+        return healthWin;
+    }
+
     public int getNumberOfShipsAlive(int playerId) {
         return players.get(playerId).getShipsAlive().size();
     }
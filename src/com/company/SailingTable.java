@@ -0,0 +1,219 @@
+package com.company;
+
+import java.util.Arrays;
+
+/**
+ * Minimum number of turns for a ship to reach each cell of the map, from each state (cell, orientation, speed)
+ * of the ship, on a map without other ships (rules of Referee.applyActions, moveShips and rotateShips).
+ * A cell is reached when the bow, the center or the stern of the ship is on it after a move step or after the
+ * rotation, like the barrels taken by checkCollisions in moveShips and rotateShips.
+ *
+ * The table is computed with a BFS backward from each target cell on the graph of the states (WAIT, FASTER,
+ * SLOWER, PORT, STARBOARD), 483 BFS of 8694 states. It must be computed once (build, in the first round),
+ * then it is only read (and can be shared by threads).
+ */
+class SailingTable {
+
+    public static final int UNREACHABLE = Byte.MAX_VALUE;
+
+    private static final int CELL_COUNT = Referee.Coord.CELL_COUNT;
+    private static final int NB_SPEEDS = Referee.MAX_SHIP_SPEED + 1;
+    public static final int STATE_COUNT = CELL_COUNT * 6 * NB_SPEEDS;
+    private static final int[] MOVES = { Referee.ACTION_WAIT, Referee.ACTION_FASTER, Referee.ACTION_SLOWER, Referee.ACTION_PORT,
+            Referee.ACTION_STARBOARD };
+    // Cells of the ship checked during a turn: bow, center and stern after each step, bow and stern after the rotation
+    private static final int MAX_REACHED = 3 * Referee.MAX_SHIP_SPEED + 2;
+
+    // turns[state * CELL_COUNT + targetCell]
+    private static byte[] turns;
+
+    private SailingTable() {
+    }
+
+    public static int state(int cell, int orientation, int speed) {
+        return (cell * 6 + orientation) * NB_SPEEDS + speed;
+    }
+
+    /**
+     * @param cell : cell index of the ship (Referee.Coord.cellIndex)
+     * @param targetCell : cell index of the target
+     * @return the minimum number of turns to have the ship on the target, or UNREACHABLE
+     */
+    public static int turnsTo(int cell, int orientation, int speed, int targetCell) {
+        return turnsTo(state(cell, orientation, speed), targetCell);
+    }
+
+    /**
+     * @param state : state of the ship (state)
+     * @param targetCell : cell index of the target
+     * @return the minimum number of turns to have the ship on the target, or UNREACHABLE
+     */
+    public static int turnsTo(int state, int targetCell) {
+        return turns[state * CELL_COUNT + targetCell];
+    }
+
+    public static boolean isBuilt() {
+        return turns != null;
+    }
+
+    /**
+     * Compute the table (about 4 MB), does nothing if it is already computed
+     */
+    public static void build() {
+        if (turns != null) {
+            return;
+        }
+
+        // Next state of each state and move, and cells reached during the turn (MAX_REACHED by transition, NO_CELL
+        // for the unused ones)
+        int[] next = new int[STATE_COUNT * MOVES.length];
+        int[] reached = new int[STATE_COUNT * MOVES.length * MAX_REACHED];
+        Arrays.fill(reached, Referee.Coord.NO_CELL);
+        int[] predecessorCount = new int[STATE_COUNT + 1];
+
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            for (int orientation = 0; orientation < 6; orientation++) {
+                for (int speed = 0; speed < NB_SPEEDS; speed++) {
+                    int state = state(cell, orientation, speed);
+                    for (int m = 0; m < MOVES.length; m++) {
+                        int transition = state * MOVES.length + m;
+                        next[transition] = nextState(cell, orientation, speed, MOVES[m], reached, transition * MAX_REACHED);
+                        predecessorCount[next[transition] + 1]++;
+                    }
+                }
+            }
+        }
+
+        // Predecessors of the states (compressed rows)
+        int[] predecessorStart = new int[STATE_COUNT + 1];
+        for (int state = 0; state < STATE_COUNT; state++) {
+            predecessorStart[state + 1] = predecessorStart[state] + predecessorCount[state + 1];
+        }
+        int[] predecessors = new int[STATE_COUNT * MOVES.length];
+        int[] fill = new int[STATE_COUNT];
+        for (int transition = 0; transition < next.length; transition++) {
+            int target = next[transition];
+            predecessors[predecessorStart[target] + fill[target]++] = transition / MOVES.length;
+        }
+
+        // States reaching each cell during a turn (compressed rows, a state can be in a row several times)
+        int[] reachingStart = new int[CELL_COUNT + 1];
+        for (int cell : reached) {
+            if (cell != Referee.Coord.NO_CELL) {
+                reachingStart[cell + 1]++;
+            }
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            reachingStart[cell + 1] += reachingStart[cell];
+        }
+        int[] reaching = new int[reachingStart[CELL_COUNT]];
+        int[] reachingFill = new int[CELL_COUNT];
+        for (int k = 0; k < reached.length; k++) {
+            int cell = reached[k];
+            if (cell != Referee.Coord.NO_CELL) {
+                reaching[reachingStart[cell] + reachingFill[cell]++] = k / (MOVES.length * MAX_REACHED);
+            }
+        }
+
+        byte[] table = new byte[STATE_COUNT * CELL_COUNT];
+        int[] distance = new int[STATE_COUNT];
+        int[] queue = new int[STATE_COUNT];
+
+        for (int targetCell = 0; targetCell < CELL_COUNT; targetCell++) {
+            Arrays.fill(distance, UNREACHABLE);
+            int head = 0;
+            int tail = 0;
+
+            // 0 turn: the bow, the center or the stern on the target
+            for (int orientation = 0; orientation < 6; orientation++) {
+                int[] cells = { targetCell, Referee.Coord.neighborCell(targetCell, orientation),
+                        Referee.Coord.neighborCell(targetCell, (orientation + 3) % 6) };
+                for (int center : cells) {
+                    if (center == Referee.Coord.NO_CELL) {
+                        continue;
+                    }
+                    for (int speed = 0; speed < NB_SPEEDS; speed++) {
+                        int state = state(center, orientation, speed);
+                        if (distance[state] == UNREACHABLE) {
+                            distance[state] = 0;
+                            queue[tail++] = state;
+                        }
+                    }
+                }
+            }
+            // 1 turn: the target is reached during the turn (the next state can be farther)
+            for (int k = reachingStart[targetCell]; k < reachingStart[targetCell + 1]; k++) {
+                int state = reaching[k];
+                if (distance[state] == UNREACHABLE) {
+                    distance[state] = 1;
+                    queue[tail++] = state;
+                }
+            }
+
+            while (head < tail) {
+                int state = queue[head++];
+                int turnCount = distance[state] + 1;
+                if (turnCount >= UNREACHABLE) {
+                    continue;
+                }
+                for (int k = predecessorStart[state]; k < predecessorStart[state + 1]; k++) {
+                    int predecessor = predecessors[k];
+                    if (distance[predecessor] == UNREACHABLE) {
+                        distance[predecessor] = turnCount;
+                        queue[tail++] = predecessor;
+                    }
+                }
+            }
+
+            for (int state = 0; state < STATE_COUNT; state++) {
+                table[state * CELL_COUNT + targetCell] = (byte) distance[state];
+            }
+        }
+
+        turns = table;
+    }
+
+    /**
+     * State after a turn with the move (same as applyActions, moveShips and rotateShips without other ships)
+     * @param reached : filled from offset with the cells of the ship checked after each step and after the rotation
+     */
+    private static int nextState(int cell, int orientation, int speed, int move, int[] reached, int offset) {
+        int newOrientation = orientation;
+        switch (move) {
+            case Referee.ACTION_FASTER:
+                if (speed < Referee.MAX_SHIP_SPEED) {
+                    speed++;
+                }
+                break;
+            case Referee.ACTION_SLOWER:
+                if (speed > 0) {
+                    speed--;
+                }
+                break;
+            case Referee.ACTION_PORT:
+                newOrientation = (orientation + 1) % 6;
+                break;
+            case Referee.ACTION_STARBOARD:
+                newOrientation = (orientation + 5) % 6;
+                break;
+            default:
+                break;
+        }
+
+        for (int step = 1; step <= speed; step++) {
+            int newCell = Referee.Coord.neighborCell(cell, orientation);
+            if (newCell == Referee.Coord.NO_CELL) {
+                speed = 0;
+                break;
+            }
+            cell = newCell;
+            reached[offset++] = cell;
+            reached[offset++] = Referee.Coord.neighborCell(cell, orientation);
+            reached[offset++] = Referee.Coord.neighborCell(cell, (orientation + 3) % 6);
+        }
+        reached[offset++] = Referee.Coord.neighborCell(cell, newOrientation);
+        reached[offset] = Referee.Coord.neighborCell(cell, (newOrientation + 3) % 6);
+
+        return state(cell, newOrientation, speed);
+    }
+}
@@ -0,0 +1,88 @@
+package com.company;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Score of Referee.evaluateScore (ships lost, ships moving less than 3 cells, rum won and lost), with the ships of
+ * the player found once by round: a simulated state keeps the ships of the state of the round in the same order
+ * (copyFrom, the dead ships are kept), so the ship i of the state is the ship i of the round and the ids are not
+ * compared.
+ * Unlike Referee.evaluateScore, a ship is lost when it is dead (GameState keeps the dead ships), so a ship sunk
+ * during the simulation costs 10000 and not the 500 of a ship that stays in place.
+ */
+class ScoreEvaluator implements Evaluator {
+
+    // Id of the next evaluator created
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private final int id = nextId.getAndIncrement();
+
+    // Player of the score (the higher the better for him)
+    protected final int playerId;
+
+    // Ships of the player alive in the round: index in the state and cell in the round
+    protected final int[] myShips = new int[Referee.MAX_SHIPS];
+    protected final int[] myRoundCells = new int[Referee.MAX_SHIPS];
+    protected int myShipCount;
+
+    /**
+     * Score of my ships (player 1)
+     */
+    public ScoreEvaluator() {
+        this(1);
+    }
+
+    public ScoreEvaluator(int playerId) {
+        this.playerId = playerId;
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public void prepare(GameState rootState, int nbOfRounds) {
+        myShipCount = 0;
+        for (int ship = 0; ship < rootState.getShipCount(); ship++) {
+            if (rootState.getShipOwner(ship) == playerId && rootState.isShipAlive(ship)) {
+                myShips[myShipCount] = ship;
+                myRoundCells[myShipCount] = rootState.getShipCell(ship);
+                myShipCount++;
+            }
+        }
+    }
+
+    @Override
+    public int evaluate(GameState rootState, GameState state) {
+        int score = 0;
+
+        int myShipsDead = myShipCount - countShipsAlive(state);
+        score += myShipsDead * (-10000);
+
+        for (int k = 0; k < myShipCount; k++) {
+            int ship = myShips[k];
+            if (state.isShipAlive(ship) && GameState.distance(state.getShipCell(ship), myRoundCells[k]) <= 3) {
+                score -= 500;
+            }
+        }
+
+        score += state.getHealthWin(playerId) * 10;
+        score -= state.getHealthWin(1 - playerId);
+
+        return score;
+    }
+
+    /**
+     * @return the nb of ships of the player alive in the round and still alive in the state
+     */
+    private int countShipsAlive(GameState state) {
+        int count = 0;
+        for (int k = 0; k < myShipCount; k++) {
+            if (state.isShipAlive(myShips[k])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
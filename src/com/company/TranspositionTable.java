@@ -0,0 +1,67 @@
+package com.company;
+
+/**
+ * Fixed size cache of the scores of the states, indexed by their Zobrist hash (GameState.getHash).
+ * An entry is written as two longs: the key xor the score, and the score. A read only accepts the entry if
+ * the xor of both gives back the key, so the entries written at the same time by two threads are never mixed:
+ * the table can be shared by the threads of the searches without lock.
+ * A new entry replaces the old one of the same slot.
+ */
+class TranspositionTable {
+
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private final long[] checks;
+    private final long[] scores;
+    private final int mask;
+
+    /**
+     * @param sizeBits : the table has 2^sizeBits entries
+     */
+    public TranspositionTable(int sizeBits) {
+        this.checks = new long[1 << sizeBits];
+        this.scores = new long[1 << sizeBits];
+        this.mask = (1 << sizeBits) - 1;
+        clear();
+    }
+
+    /**
+     * Key of the score of state evaluated from rootState (the score depends on both)
+     */
+    public static long key(GameState rootState, GameState state) {
+        return state.getHash() ^ Long.rotateLeft(rootState.getHash(), 17);
+    }
+
+    /**
+     * Same as key for the scores of an evaluator: the scores of two evaluators (Evaluator.getId) are not mixed
+     */
+    public static long key(GameState rootState, GameState state, Evaluator evaluator) {
+        return key(rootState, state) ^ FastRandom.mix(evaluator.getId() + 1);
+    }
+
+    /**
+     * @return the score stored for key or NO_SCORE
+     */
+    public int get(long key) {
+        int slot = (int) (key ^ key >>> 32) & mask;
+        long score = scores[slot];
+        if ((checks[slot] ^ score) != key) {
+            return NO_SCORE;
+        }
+        return (int) score;
+    }
+
+    public void put(long key, int score) {
+        int slot = (int) (key ^ key >>> 32) & mask;
+        scores[slot] = score;
+        checks[slot] = key ^ score;
+    }
+
+    public void clear() {
+        for (int i = 0; i < scores.length; i++) {
+            // An empty slot gives NO_SCORE for any key
+            scores[i] = NO_SCORE;
+            checks[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.company;
+
+/**
+ * Time budget of a round for the searches.
+ * The clock (System.nanoTime) is only read every checkInterval calls of hasTime, the interval is adapted to the
+ * measured time of an evaluation so the clock is read about every CHECK_PERIOD_NANOS.
+ */
+class TurnBudget {
+
+    private static final long CHECK_PERIOD_NANOS = 200_000;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final long roundNanos;
+    private final long firstRoundNanos;
+
+    private long startNanos;
+    private long budgetNanos;
+    private long deadlineNanos;
+    private long lastCheckNanos;
+    private long stopNanos;
+
+    private int checkInterval;
+    private int callsBeforeCheck;
+    private int callsSinceCheck;
+    private int evaluations;
+    private boolean expired;
+
+    /**
+     * @param roundMillis : time of a round for the search
+     * @param firstRoundMillis : time of the first round (longer, and the JVM is not warm)
+     */
+    public TurnBudget(long roundMillis, long firstRoundMillis) {
+        this.roundNanos = roundMillis * NANOS_PER_MILLI;
+        this.firstRoundNanos = firstRoundMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Start the budget of a round, must be called as soon as the input of the round is received
+     * @param firstRound : true to use the time of the first round
+     */
+    public void start(boolean firstRound) {
+        startNanos = System.nanoTime();
+        budgetNanos = firstRound ? firstRoundNanos : roundNanos;
+        deadlineNanos = startNanos + budgetNanos;
+        lastCheckNanos = startNanos;
+        stopNanos = 0;
+        checkInterval = 1;
+        callsBeforeCheck = 1;
+        callsSinceCheck = 0;
+        evaluations = 0;
+        expired = false;
+    }
+
+    /**
+     * Must be called before each evaluation
+     * @return false when the time of the round is over (and after that)
+     */
+    public boolean hasTime() {
+        if (expired) {
+            return false;
+        }
+
+        callsSinceCheck++;
+        if (--callsBeforeCheck > 0) {
+            evaluations++;
+            return true;
+        }
+
+        long now = System.nanoTime();
+        if (now >= deadlineNanos) {
+            expired = true;
+            stopNanos = now;
+            return false;
+        }
+
+        // Adapt the interval to the time of an evaluation, without going past the deadline
+        long nanosPerCall = Math.max(1, (now - lastCheckNanos) / callsSinceCheck);
+        long interval = Math.min(CHECK_PERIOD_NANOS, deadlineNanos - now) / nanosPerCall;
+        checkInterval = (int) Math.max(1, Math.min(interval, Integer.MAX_VALUE));
+        callsBeforeCheck = checkInterval;
+        callsSinceCheck = 0;
+        lastCheckNanos = now;
+
+        evaluations++;
+        return true;
+    }
+
+    /**
+     * Date of the end of the round (System.nanoTime), for the threads that can not share hasTime
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Count evaluations done outside of hasTime (by other threads)
+     */
+    public void addEvaluations(int count) {
+        evaluations += count;
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    public long getElapsedNanos() {
+        return (expired ? stopNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * @return part of the budget used (can be more than 1 if the search stopped late)
+     */
+    public double getUsedRatio() {
+        return (double) getElapsedNanos() / budgetNanos;
+    }
+
+    public String report() {
+        return String.format("Time used: %.2f ms / %d ms (%.0f%%), evaluations: %d, check interval: %d",
+                getElapsedNanos() / (double) NANOS_PER_MILLI, budgetNanos / NANOS_PER_MILLI, getUsedRatio() * 100, evaluations,
+                checkInterval);
+    }
+}